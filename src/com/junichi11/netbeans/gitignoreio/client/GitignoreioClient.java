@@ -0,0 +1,172 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.client;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.function.Consumer;
+
+/**
+ * Client for the gitignore.io API.
+ *
+ * @author junichi11
+ */
+public final class GitignoreioClient {
+
+    // e.g. -J-Dgitignoreio.api.url=http://localhost:8080/api/
+    private static final String GITIGNORE_API = System.getProperty("gitignoreio.api.url", "https://www.gitignore.io/api/"); // NOI18N
+    private static final int TIMEOUT = Integer.getInteger("gitignoreio.timeout", 2000); // NOI18N
+    private static final GitignoreioClient INSTANCE = new GitignoreioClient(GITIGNORE_API, TIMEOUT);
+    public static final String FORMAT_LINES = "lines"; // NOI18N
+    public static final String FORMAT_JSON = "json"; // NOI18N
+    private static final String UTF8 = "UTF-8"; // NOI18N
+    private static final String HEADER_PREFIX = "# Created by "; // NOI18N
+
+    private final String apiUrl;
+    private final int timeout;
+
+    GitignoreioClient(String apiUrl, int timeout) {
+        this.apiUrl = apiUrl.endsWith("/") ? apiUrl : apiUrl + "/"; // NOI18N
+        this.timeout = timeout;
+    }
+
+    public static GitignoreioClient getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Write the gitignore content for the gitignores to the writer. The
+     * response is streamed line by line without reading the whole body.
+     *
+     * @param gitignores comma separated gitignores e.g. "java,maven"
+     * @param writer the writer
+     * @param ignoreHeader {@code true} if "# Created by ..." line is not
+     * written, otherwise {@code false}
+     * @throws IOException
+     */
+    public void writeGitignoreContent(String gitignores, Writer writer, boolean ignoreHeader) throws IOException {
+        String url = apiUrl + gitignores;
+        HttpURLConnection connection = openUrlConnection(url);
+        readLines(connection, UTF8, new LineHandler() {
+            private boolean isFirstLine = true;
+
+            @Override
+            public void handle(String line) throws IOException {
+                boolean isHeader = isFirstLine && line.startsWith(HEADER_PREFIX);
+                isFirstLine = false;
+                if (isHeader && ignoreHeader) {
+                    return;
+                }
+                writer.write(line);
+                writer.write("\n"); // NOI18N
+            }
+        });
+    }
+
+    /**
+     * Pass each item of the available list to the consumer.
+     *
+     * @param format the format of the list e.g. "lines"
+     * @param consumer the consumer
+     * @throws IOException
+     */
+    public void readAvailableGitignores(String format, Consumer<String> consumer) throws IOException {
+        HttpURLConnection connection = openUrlConnection(getApiListURL(format));
+        readLines(connection, UTF8, (line) -> {
+            if (!line.isEmpty()) {
+                consumer.accept(line);
+            }
+        });
+    }
+
+    private HttpURLConnection openUrlConnection(String url) throws IOException {
+        // not only https but also http (e.g. a local server) is available
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("GET"); // NOI18N
+        connection.setRequestProperty("User-Agent", "NetBeans Plugin");
+        connection.setReadTimeout(timeout);
+        connection.setConnectTimeout(timeout);
+        return connection;
+    }
+
+    private String getApiListURL(String format) {
+        String formatParam = String.format("format=%s", format); // NOI18N
+        StringBuilder sb = new StringBuilder();
+        sb.append(apiUrl).append("list"); // NOI18N
+        sb.append("?"); // NOI18N
+        sb.append(formatParam);
+        return sb.toString();
+    }
+
+    private void readLines(URLConnection connection, String charset, LineHandler handler) throws IOException {
+        long contentLength = connection.getContentLengthLong();
+        try (CountingInputStream inputStream = new CountingInputStream(connection.getInputStream());
+                BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, charset))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                handler.handle(line);
+            }
+            // HttpURLConnection doesn't report a connection closed in the middle of the body
+            if (contentLength != -1 && inputStream.getCount() != contentLength) {
+                throw new EOFException(String.format("Premature EOF: %d of %d bytes", inputStream.getCount(), contentLength)); // NOI18N
+            }
+        }
+    }
+
+    private interface LineHandler {
+
+        void handle(String line) throws IOException;
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int length = super.read(b, off, len);
+            if (length != -1) {
+                count += length;
+            }
+            return length;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
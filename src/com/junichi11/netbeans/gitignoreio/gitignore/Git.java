@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.gitignore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Run git commands. git knows all exclude sources (nested and parent
+ * .gitignore files, .git/info/exclude, core.excludesFile), so it decides
+ * whether paths are ignored when it is available.
+ *
+ * @author junichi11
+ */
+final class Git {
+
+    private static final Logger LOGGER = Logger.getLogger(Git.class.getName());
+    private static final String GIT = "git"; // NOI18N
+    private static final File NULL_FILE = new File(System.getProperty("os.name").toLowerCase(Locale.ROOT).startsWith("windows") ? "NUL" : "/dev/null"); // NOI18N
+
+    private Git() {
+    }
+
+    /**
+     * Run git in the directory.
+     *
+     * @param directory the working directory
+     * @param arguments arguments e.g. "ls-files", "-z"
+     * @return the standard output, {@code null} if git is not available or
+     * fails (e.g. the directory is not in a repository)
+     */
+    static String run(File directory, String... arguments) {
+        return run(directory, Arrays.asList(arguments));
+    }
+
+    static String run(File directory, List<String> arguments) {
+        List<String> command = new ArrayList<>(arguments.size() + 1);
+        command.add(GIT);
+        command.addAll(arguments);
+        try {
+            Process process = new ProcessBuilder(command)
+                    .directory(directory)
+                    .redirectError(ProcessBuilder.Redirect.appendTo(NULL_FILE))
+                    .start();
+            process.getOutputStream().close();
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try (InputStream inputStream = process.getInputStream()) {
+                byte[] buffer = new byte[8192];
+                int length;
+                while ((length = inputStream.read(buffer)) != -1) {
+                    output.write(buffer, 0, length);
+                }
+            }
+            if (process.waitFor() != 0) {
+                return null;
+            }
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            LOGGER.log(Level.FINE, ex.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * Split the output of a command with the "-z" option.
+     *
+     * @param output the output
+     * @return items
+     */
+    static List<String> splitNul(String output) {
+        List<String> items = new ArrayList<>();
+        for (String item : output.split("\u0000")) { // NOI18N
+            if (!item.isEmpty()) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+}
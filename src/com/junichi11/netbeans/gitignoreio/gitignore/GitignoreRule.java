@@ -0,0 +1,312 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.gitignore;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A rule (a pattern line) of a .gitignore file.
+ *
+ * @author junichi11
+ */
+public final class GitignoreRule {
+
+    private final int lineNumber;
+    private final String line;
+    private final String pattern;
+    private final boolean negated;
+    private final boolean directoryOnly;
+    private final boolean anchored;
+    private final Pattern regex;
+    // [:name:] -> java character class
+    private static final Map<String, String> POSIX_CLASSES = new HashMap<>();
+
+    static {
+        POSIX_CLASSES.put("alnum", "\\p{Alnum}"); // NOI18N
+        POSIX_CLASSES.put("alpha", "\\p{Alpha}"); // NOI18N
+        POSIX_CLASSES.put("blank", "\\p{Blank}"); // NOI18N
+        POSIX_CLASSES.put("cntrl", "\\p{Cntrl}"); // NOI18N
+        POSIX_CLASSES.put("digit", "\\p{Digit}"); // NOI18N
+        POSIX_CLASSES.put("graph", "\\p{Graph}"); // NOI18N
+        POSIX_CLASSES.put("lower", "\\p{Lower}"); // NOI18N
+        POSIX_CLASSES.put("print", "\\p{Print}"); // NOI18N
+        POSIX_CLASSES.put("punct", "\\p{Punct}"); // NOI18N
+        POSIX_CLASSES.put("space", "\\p{Space}"); // NOI18N
+        POSIX_CLASSES.put("upper", "\\p{Upper}"); // NOI18N
+        POSIX_CLASSES.put("xdigit", "\\p{XDigit}"); // NOI18N
+    }
+
+    private GitignoreRule(int lineNumber, String line, String pattern, boolean negated, boolean directoryOnly, boolean anchored) {
+        this.lineNumber = lineNumber;
+        this.line = line;
+        this.pattern = pattern;
+        this.negated = negated;
+        this.directoryOnly = directoryOnly;
+        this.anchored = anchored;
+        this.regex = compile(pattern, anchored);
+    }
+
+    /**
+     * Parse a line of a .gitignore file.
+     *
+     * @param lineNumber the line number (0-based)
+     * @param line the line
+     * @return the rule if the line is a pattern, otherwise {@code null} (blank
+     * lines and comments)
+     */
+    public static GitignoreRule parse(int lineNumber, String line) {
+        String text = trimTrailingSpaces(line);
+        if (text.isEmpty() || text.startsWith("#")) { // NOI18N
+            return null;
+        }
+        boolean negated = false;
+        if (text.startsWith("!")) { // NOI18N
+            negated = true;
+            text = text.substring(1);
+        } else if (text.startsWith("\\!") || text.startsWith("\\#")) { // NOI18N
+            text = text.substring(1);
+        }
+        boolean directoryOnly = false;
+        if (text.endsWith("/")) { // NOI18N
+            directoryOnly = true;
+            text = text.substring(0, text.length() - 1);
+        }
+        // a separator at the beginning or middle makes the pattern relative to the .gitignore file
+        boolean anchored = text.contains("/"); // NOI18N
+        if (text.startsWith("/")) { // NOI18N
+            text = text.substring(1);
+        }
+        if (text.isEmpty()) {
+            return null;
+        }
+        return new GitignoreRule(lineNumber, line, text, negated, directoryOnly, anchored);
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * Get the normalized pattern. i.e. without "!", a leading "/" and a
+     * trailing "/".
+     *
+     * @return the normalized pattern
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    public boolean isNegated() {
+        return negated;
+    }
+
+    public boolean isDirectoryOnly() {
+        return directoryOnly;
+    }
+
+    public boolean isAnchored() {
+        return anchored;
+    }
+
+    /**
+     * Check whether the path matches this rule. Parent directories are not
+     * checked.
+     *
+     * @param path the path relative to the .gitignore file, separated with "/"
+     * @param isDirectory {@code true} if the path is a directory
+     * @return {@code true} if the path matches, otherwise {@code false}
+     */
+    public boolean matches(String path, boolean isDirectory) {
+        if (directoryOnly && !isDirectory) {
+            return false;
+        }
+        return regex != null && regex.matcher(path).matches();
+    }
+
+    private static Pattern compile(String pattern, boolean anchored) {
+        try {
+            return Pattern.compile(toRegex(pattern, anchored));
+        } catch (PatternSyntaxException ex) {
+            // git never fails for a pattern, treat it as a pattern which matches nothing
+            return null;
+        }
+    }
+
+    private static String trimTrailingSpaces(String line) {
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) == ' ') {
+            // "\ " is an escaped space
+            if (end > 1 && line.charAt(end - 2) == '\\') {
+                break;
+            }
+            end--;
+        }
+        return line.substring(0, end);
+    }
+
+    private static String toRegex(String pattern, boolean anchored) {
+        StringBuilder sb = new StringBuilder();
+        if (!anchored) {
+            sb.append("(?:.*/)?"); // NOI18N
+        }
+        int length = pattern.length();
+        for (int i = 0; i < length; i++) {
+            char c = pattern.charAt(i);
+            switch (c) {
+                case '*':
+                    boolean segmentStart = i == 0 || pattern.charAt(i - 1) == '/';
+                    if (i + 1 < length && pattern.charAt(i + 1) == '*' && segmentStart) {
+                        if (i + 2 == length) {
+                            // trailing "/**"
+                            sb.append(".*"); // NOI18N
+                            i++;
+                            break;
+                        } else if (pattern.charAt(i + 2) == '/') {
+                            // leading "**/" or "/**/"
+                            sb.append("(?:.*/)?"); // NOI18N
+                            i += 2;
+                            break;
+                        }
+                    }
+                    sb.append("[^/]*"); // NOI18N
+                    break;
+                case '?':
+                    sb.append("[^/]"); // NOI18N
+                    break;
+                case '[':
+                    int end = appendBracket(pattern, i, sb);
+                    if (end == -1) {
+                        sb.append("\\["); // NOI18N
+                        break;
+                    }
+                    i = end;
+                    break;
+                case '\\':
+                    if (i + 1 < length) {
+                        i++;
+                        sb.append(Pattern.quote(String.valueOf(pattern.charAt(i))));
+                    }
+                    break;
+                default:
+                    sb.append(Pattern.quote(String.valueOf(c)));
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Append a bracket expression (e.g. "[a-z]", "[!0-9]", "[[:digit:]]") as
+     * a java character class. Each character is escaped, so that java only
+     * syntax (e.g. "&&", nested classes) is not interpreted.
+     *
+     * @return the index of the closing "]", -1 if the bracket is not closed
+     */
+    private static int appendBracket(String pattern, int start, StringBuilder sb) {
+        int length = pattern.length();
+        int i = start + 1;
+        boolean negated = false;
+        if (i < length && (pattern.charAt(i) == '!' || pattern.charAt(i) == '^')) {
+            negated = true;
+            i++;
+        }
+        StringBuilder items = new StringBuilder();
+        boolean first = true;
+        boolean hasUnknownClass = false;
+        for (; i < length; i++) {
+            char c = pattern.charAt(i);
+            if (c == ']' && !first) {
+                if (hasUnknownClass) {
+                    // git doesn't match anything with an unknown class
+                    sb.append("(?!)"); // NOI18N
+                } else if (negated) {
+                    // a bracket never matches "/"
+                    sb.append("[^/").append(items).append(']'); // NOI18N
+                } else if (items.length() == 0) {
+                    // e.g. [z-a] matches nothing
+                    sb.append("(?!)"); // NOI18N
+                } else {
+                    sb.append('[').append(items).append("&&[^/]]"); // NOI18N
+                }
+                return i;
+            }
+            first = false;
+            if (c == '[' && i + 1 < length && pattern.charAt(i + 1) == ':') {
+                int close = pattern.indexOf(":]", i + 2); // NOI18N
+                if (close == -1) {
+                    return -1;
+                }
+                String posixClass = POSIX_CLASSES.get(pattern.substring(i + 2, close));
+                if (posixClass == null) {
+                    hasUnknownClass = true;
+                } else {
+                    items.append(posixClass);
+                }
+                i = close + 1;
+                continue;
+            }
+            if (c == '\\') {
+                i++;
+                if (i == length) {
+                    return -1;
+                }
+                c = pattern.charAt(i);
+            }
+            char rangeEnd = c;
+            if (i + 2 < length && pattern.charAt(i + 1) == '-' && pattern.charAt(i + 2) != ']') {
+                int endIndex = i + 2;
+                if (pattern.charAt(endIndex) == '\\') {
+                    endIndex++;
+                    if (endIndex == length) {
+                        return -1;
+                    }
+                }
+                rangeEnd = pattern.charAt(endIndex);
+                i = endIndex;
+                if (rangeEnd < c) {
+                    // an empty range
+                    continue;
+                }
+            }
+            appendClassChar(items, c);
+            if (rangeEnd != c) {
+                items.append('-');
+                appendClassChar(items, rangeEnd);
+            }
+        }
+        return -1;
+    }
+
+    private static void appendClassChar(StringBuilder sb, char c) {
+        if (Character.isLetterOrDigit(c)) {
+            sb.append(c);
+        } else {
+            sb.append(String.format("\\x{%x}", (int) c)); // NOI18N
+        }
+    }
+
+    @Override
+    public String toString() {
+        return line;
+    }
+}
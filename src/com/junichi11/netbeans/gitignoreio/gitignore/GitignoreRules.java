@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.gitignore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rules of a .gitignore file.
+ *
+ * @author junichi11
+ */
+public final class GitignoreRules {
+
+    private static final GitignoreRules EMPTY = new GitignoreRules(Collections.<GitignoreRule>emptyList());
+    private final List<GitignoreRule> rules;
+
+    private GitignoreRules(List<GitignoreRule> rules) {
+        this.rules = rules;
+    }
+
+    public static GitignoreRules create(List<GitignoreRule> rules) {
+        return new GitignoreRules(Collections.unmodifiableList(new ArrayList<>(rules)));
+    }
+
+    public static GitignoreRules parse(List<String> lines) {
+        List<GitignoreRule> rules = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            GitignoreRule rule = GitignoreRule.parse(i, lines.get(i));
+            if (rule != null) {
+                rules.add(rule);
+            }
+        }
+        return create(rules);
+    }
+
+    /**
+     * Parse the .gitignore file.
+     *
+     * @param gitignoreFile the .gitignore file
+     * @return rules, empty rules if the file doesn't exist
+     * @throws IOException
+     */
+    public static GitignoreRules parse(File gitignoreFile) throws IOException {
+        if (!gitignoreFile.isFile()) {
+            return EMPTY;
+        }
+        return parse(Files.readAllLines(gitignoreFile.toPath(), StandardCharsets.UTF_8));
+    }
+
+    public List<GitignoreRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Check whether the path is ignored. A path is ignored if the last matching
+     * rule is not negated or one of its parent directories is ignored.
+     *
+     * @param path the path relative to the .gitignore file, separated with "/"
+     * @param isDirectory {@code true} if the path is a directory
+     * @return {@code true} if the path is ignored, otherwise {@code false}
+     */
+    public boolean isIgnored(String path, boolean isDirectory) {
+        int index = path.indexOf('/');
+        while (index != -1) {
+            if (isExcluded(path.substring(0, index), true)) {
+                return true;
+            }
+            index = path.indexOf('/', index + 1);
+        }
+        return isExcluded(path, isDirectory);
+    }
+
+    /**
+     * Check the path itself without parent directories. Use this only when the
+     * parent directories are already known not to be ignored (e.g. while
+     * walking a tree without descending into ignored directories).
+     *
+     * @param path the path relative to the .gitignore file, separated with "/"
+     * @param isDirectory {@code true} if the path is a directory
+     * @return {@code true} if the path is excluded, otherwise {@code false}
+     */
+    public boolean isExcluded(String path, boolean isDirectory) {
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            GitignoreRule rule = rules.get(i);
+            if (rule.matches(path, isDirectory)) {
+                return !rule.isNegated();
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.gitignore;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.swing.event.ChangeListener;
+import org.openide.filesystems.FileAttributeEvent;
+import org.openide.filesystems.FileChangeListener;
+import org.openide.filesystems.FileEvent;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileRenameEvent;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.ChangeSupport;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Index of gitignore.io templates detected from marker files (e.g. pom.xml,
+ * package.json) in a project directory.
+ *
+ * The index is built once per directory in the background and then updated
+ * with file events of the directory, so suggestions can be got without
+ * scanning the directory.
+ *
+ * @author junichi11
+ */
+public final class GitignoreTemplateIndex implements FileChangeListener {
+
+    private static final String GITIGNORE_NAME = ".gitignore"; // NOI18N
+    // e.g. # Created by https://www.gitignore.io/api/maven,node
+    private static final Pattern API_PATTERN = Pattern.compile("/api/([^\\s]+)"); // NOI18N
+    // e.g. ### Maven ###
+    private static final Pattern SECTION_PATTERN = Pattern.compile("^###\\s*(.+?)\\s*###$"); // NOI18N
+    private static final Logger LOGGER = Logger.getLogger(GitignoreTemplateIndex.class.getName());
+    private static final Map<FileObject, GitignoreTemplateIndex> INDICES = new WeakHashMap<>();
+    private static final ChangeSupport CHANGE_SUPPORT = new ChangeSupport(GitignoreTemplateIndex.class);
+    private static final RequestProcessor RP = new RequestProcessor(GitignoreTemplateIndex.class);
+    // marker file name -> gitignore.io template name
+    private static final Map<String, String> MARKERS = new HashMap<>();
+
+    static {
+        MARKERS.put("pom.xml", "maven"); // NOI18N
+        MARKERS.put("build.gradle", "gradle"); // NOI18N
+        MARKERS.put("build.gradle.kts", "gradle"); // NOI18N
+        MARKERS.put("settings.gradle", "gradle"); // NOI18N
+        MARKERS.put("build.xml", "ant"); // NOI18N
+        MARKERS.put("nbproject", "netbeans"); // NOI18N
+        MARKERS.put(".idea", "jetbrains"); // NOI18N
+        MARKERS.put("package.json", "node"); // NOI18N
+        MARKERS.put("bower.json", "bower"); // NOI18N
+        MARKERS.put("composer.json", "composer"); // NOI18N
+        MARKERS.put("requirements.txt", "python"); // NOI18N
+        MARKERS.put("setup.py", "python"); // NOI18N
+        MARKERS.put("pyproject.toml", "python"); // NOI18N
+        MARKERS.put("Pipfile", "python"); // NOI18N
+        MARKERS.put("Gemfile", "ruby"); // NOI18N
+        MARKERS.put("Cargo.toml", "rust"); // NOI18N
+        MARKERS.put("go.mod", "go"); // NOI18N
+        MARKERS.put("CMakeLists.txt", "cmake"); // NOI18N
+        MARKERS.put("pubspec.yaml", "dart"); // NOI18N
+        MARKERS.put("mix.exs", "elixir"); // NOI18N
+        MARKERS.put("stack.yaml", "haskell"); // NOI18N
+        MARKERS.put("elm.json", "elm"); // NOI18N
+        MARKERS.put("Package.swift", "swift"); // NOI18N
+    }
+
+    // guarded by this
+    private final Set<String> markers = new HashSet<>();
+    private final Set<String> gitignoredTemplates = new HashSet<>();
+    private GitignoreRules gitignoreRules = GitignoreRules.create(Collections.<GitignoreRule>emptyList());
+    private boolean hasGitignore;
+    private boolean isScanned;
+    private volatile RequestProcessor.Task scanTask;
+
+    private GitignoreTemplateIndex() {
+    }
+
+    /**
+     * Get the index for the directory. The index is created and starts
+     * listening to the directory at the first call. The directory is scanned
+     * in the background, listeners are notified when the scan finishes.
+     *
+     * @param directory the project directory
+     * @return the index, it may not be scanned yet
+     */
+    public static GitignoreTemplateIndex forDirectory(FileObject directory) {
+        synchronized (INDICES) {
+            GitignoreTemplateIndex index = INDICES.get(directory);
+            if (index == null) {
+                final GitignoreTemplateIndex newIndex = new GitignoreTemplateIndex();
+                // listen first not to lose changes while scanning
+                directory.addFileChangeListener(FileUtil.weakFileChangeListener(newIndex, directory));
+                newIndex.scanTask = RP.post(() -> newIndex.update(() -> newIndex.scan(directory)));
+                INDICES.put(directory, newIndex);
+                index = newIndex;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Wait until the directory is scanned. Don't call this in the EDT.
+     */
+    public void waitForScan() {
+        scanTask.waitFinished();
+    }
+
+    /**
+     * Add a listener which is notified when the missing templates of any
+     * index are changed.
+     *
+     * @param listener the listener
+     */
+    public static void addChangeListener(ChangeListener listener) {
+        CHANGE_SUPPORT.addChangeListener(listener);
+    }
+
+    public static void removeChangeListener(ChangeListener listener) {
+        CHANGE_SUPPORT.removeChangeListener(listener);
+    }
+
+    /**
+     * Get templates detected from the marker files.
+     *
+     * @return sorted template names
+     */
+    public synchronized List<String> getSuggestedGitignores() {
+        Set<String> templates = new TreeSet<>();
+        markers.forEach((marker) -> {
+            templates.add(MARKERS.get(marker));
+        });
+        return new ArrayList<>(templates);
+    }
+
+    /**
+     * Get detected templates which the .gitignore doesn't contain.
+     *
+     * @return sorted template names, empty if .gitignore doesn't exist or the
+     * directory is not scanned yet
+     */
+    public synchronized List<String> getMissingGitignores() {
+        if (!isScanned || !hasGitignore) {
+            return Collections.emptyList();
+        }
+        return getMissingGitignores(getSuggestedGitignores(), gitignoredTemplates, gitignoreRules);
+    }
+
+    /**
+     * Get templates which the .gitignore doesn't contain. If the .gitignore
+     * is not generated by gitignore.io (i.e. written by hand), a template is
+     * missing only if none of its heavy directories (e.g. target, node_modules)
+     * is ignored.
+     *
+     * @param suggestedGitignores detected template names
+     * @param gitignoredTemplates template names of the gitignore.io headers
+     * and sections
+     * @param gitignoreRules rules of the .gitignore
+     * @return missing template names
+     */
+    static List<String> getMissingGitignores(List<String> suggestedGitignores, Set<String> gitignoredTemplates, GitignoreRules gitignoreRules) {
+        List<String> missing = new ArrayList<>(suggestedGitignores);
+        if (!gitignoredTemplates.isEmpty()) {
+            missing.removeAll(gitignoredTemplates);
+            return missing;
+        }
+        missing.removeIf((template) -> {
+            List<String> directoryNames = HeavyDirectoryAuditor.getDirectoryNames(template);
+            if (directoryNames.isEmpty()) {
+                return true;
+            }
+            for (String directoryName : directoryNames) {
+                if (gitignoreRules.isIgnored(directoryName, true)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+        return missing;
+    }
+
+    public synchronized boolean hasGitignore() {
+        return hasGitignore;
+    }
+
+    // guarded by this
+    private void scan(FileObject directory) {
+        for (FileObject child : directory.getChildren()) {
+            String name = child.getNameExt();
+            if (MARKERS.containsKey(name)) {
+                markers.add(name);
+            } else if (name.equals(GITIGNORE_NAME)) {
+                updateGitignoredTemplates(child);
+            }
+        }
+        isScanned = true;
+    }
+
+    private void updated(FileObject file) {
+        String name = file.getNameExt();
+        if (MARKERS.containsKey(name)) {
+            update(() -> markers.add(name));
+        } else if (name.equals(GITIGNORE_NAME)) {
+            update(() -> updateGitignoredTemplates(file));
+        }
+    }
+
+    private void removed(String name) {
+        if (MARKERS.containsKey(name)) {
+            update(() -> markers.remove(name));
+        } else if (name.equals(GITIGNORE_NAME)) {
+            update(() -> {
+                hasGitignore = false;
+                gitignoredTemplates.clear();
+                gitignoreRules = GitignoreRules.create(Collections.<GitignoreRule>emptyList());
+            });
+        }
+    }
+
+    private void update(Runnable runnable) {
+        List<String> oldMissing;
+        List<String> newMissing;
+        synchronized (this) {
+            oldMissing = getMissingGitignores();
+            runnable.run();
+            newMissing = getMissingGitignores();
+        }
+        if (!oldMissing.equals(newMissing)) {
+            CHANGE_SUPPORT.fireChange();
+        }
+    }
+
+    // guarded by this
+    private void updateGitignoredTemplates(FileObject gitignore) {
+        hasGitignore = true;
+        gitignoredTemplates.clear();
+        try {
+            List<String> lines = gitignore.asLines(StandardCharsets.UTF_8.name());
+            gitignoreRules = GitignoreRules.parse(lines);
+            for (String line : lines) {
+                Matcher apiMatcher = API_PATTERN.matcher(line);
+                if (line.startsWith("#") && apiMatcher.find()) { // NOI18N
+                    for (String template : apiMatcher.group(1).split(",")) { // NOI18N
+                        gitignoredTemplates.add(template.toLowerCase(Locale.ROOT));
+                    }
+                    continue;
+                }
+                Matcher sectionMatcher = SECTION_PATTERN.matcher(line);
+                if (sectionMatcher.matches()) {
+                    gitignoredTemplates.add(sectionMatcher.group(1).toLowerCase(Locale.ROOT));
+                }
+            }
+        } catch (IOException ex) {
+            LOGGER.log(Level.INFO, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void fileFolderCreated(FileEvent fe) {
+        updated(fe.getFile());
+    }
+
+    @Override
+    public void fileDataCreated(FileEvent fe) {
+        updated(fe.getFile());
+    }
+
+    @Override
+    public void fileChanged(FileEvent fe) {
+        FileObject file = fe.getFile();
+        if (file.getNameExt().equals(GITIGNORE_NAME)) {
+            updated(file);
+        }
+    }
+
+    @Override
+    public void fileDeleted(FileEvent fe) {
+        removed(fe.getFile().getNameExt());
+    }
+
+    @Override
+    public void fileRenamed(FileRenameEvent fe) {
+        String ext = fe.getExt();
+        removed(ext.isEmpty() ? fe.getName() : fe.getName() + "." + ext); // NOI18N
+        updated(fe.getFile());
+    }
+
+    @Override
+    public void fileAttributeChanged(FileAttributeEvent fe) {
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.gitignore;
+
+import java.io.File;
+import java.util.Comparator;
+
+/**
+ * A directory which should be ignored but no rule of the .gitignore matches.
+ *
+ * @author junichi11
+ */
+public final class HeavyDirectory {
+
+    /**
+     * Larger directories first.
+     */
+    public static final Comparator<HeavyDirectory> BY_SIZE = Comparator
+            .comparingLong(HeavyDirectory::getSize)
+            .thenComparingLong(HeavyDirectory::getFileCount)
+            .reversed();
+
+    private final File root;
+    private final String path;
+    private final String gitignore;
+    private final long size;
+    private final long fileCount;
+
+    HeavyDirectory(File root, String path, String gitignore, long size, long fileCount) {
+        this.root = root;
+        this.path = path;
+        this.gitignore = gitignore;
+        this.size = size;
+        this.fileCount = fileCount;
+    }
+
+    /**
+     * Get the directory which has the .gitignore file.
+     *
+     * @return the root directory
+     */
+    public File getRoot() {
+        return root;
+    }
+
+    /**
+     * Get the path relative to the root directory.
+     *
+     * @return the relative path
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Get the gitignore.io template name for this directory.
+     *
+     * @return the template name e.g. "maven"
+     */
+    public String getGitignore() {
+        return gitignore;
+    }
+
+    /**
+     * Get the total size of files in bytes.
+     *
+     * @return the total size
+     */
+    public long getSize() {
+        return size;
+    }
+
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    @Override
+    public String toString() {
+        return path + " (" + gitignore + ")"; // NOI18N
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.gitignore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Find build outputs and dependency directories which are not ignored by the
+ * .gitignore file of the root directory.
+ *
+ * @author junichi11
+ */
+public final class HeavyDirectoryAuditor {
+
+    private static final String GITIGNORE_NAME = ".gitignore"; // NOI18N
+    private static final String GIT_DIRECTORY_NAME = ".git"; // NOI18N
+    // directory name -> gitignore.io template name
+    private static final Map<String, String> HEAVY_DIRECTORIES = new HashMap<>();
+
+    static {
+        HEAVY_DIRECTORIES.put("target", "maven"); // NOI18N
+        HEAVY_DIRECTORIES.put(".gradle", "gradle"); // NOI18N
+        HEAVY_DIRECTORIES.put("node_modules", "node"); // NOI18N
+        HEAVY_DIRECTORIES.put("bower_components", "bower"); // NOI18N
+        HEAVY_DIRECTORIES.put("vendor", "composer"); // NOI18N
+        HEAVY_DIRECTORIES.put("__pycache__", "python"); // NOI18N
+        HEAVY_DIRECTORIES.put(".venv", "python"); // NOI18N
+        HEAVY_DIRECTORIES.put(".tox", "python"); // NOI18N
+        HEAVY_DIRECTORIES.put(".sass-cache", "sass"); // NOI18N
+        HEAVY_DIRECTORIES.put(".terraform", "terraform"); // NOI18N
+        HEAVY_DIRECTORIES.put(".stack-work", "haskell"); // NOI18N
+        HEAVY_DIRECTORIES.put("elm-stuff", "elm"); // NOI18N
+        HEAVY_DIRECTORIES.put(".dart_tool", "dart"); // NOI18N
+        HEAVY_DIRECTORIES.put("DerivedData", "xcode"); // NOI18N
+    }
+
+    // a directory is heavy if it has at least one of them
+    private static final long MIN_SIZE = 1024 * 1024;
+    private static final long MIN_FILE_COUNT = 100;
+    private final File root;
+    private final Set<Path> excludedDirectories = new HashSet<>();
+
+    public HeavyDirectoryAuditor(File root) {
+        this(root, Collections.<File>emptyList());
+    }
+
+    /**
+     * Create an auditor.
+     *
+     * @param root the directory which has the .gitignore file
+     * @param excludedDirectories directories which are not walked e.g. nested
+     * projects which are audited separately (git still applies the rules of
+     * the parent directories to them)
+     */
+    public HeavyDirectoryAuditor(File root, Collection<File> excludedDirectories) {
+        this.root = root;
+        excludedDirectories.forEach((directory) -> {
+            this.excludedDirectories.add(directory.toPath());
+        });
+    }
+
+    /**
+     * Walk the tree of the root directory and find heavy directories which git
+     * doesn't ignore. If the root is not in a repository, only rules of the
+     * root .gitignore are checked. Ignored directories are not walked. Small
+     * directories and directories which contain files tracked by git are not
+     * reported.
+     *
+     * @return heavy directories, larger ones first
+     * @throws IOException
+     */
+    public List<HeavyDirectory> audit() throws IOException {
+        if (!root.isDirectory()) {
+            return Collections.emptyList();
+        }
+        // git applies all exclude sources, the root .gitignore is used only outside a repository
+        final Set<String> ignoredPaths = getIgnoredPaths();
+        final GitignoreRules rules = ignoredPaths == null
+                ? GitignoreRules.parse(new File(root, GITIGNORE_NAME))
+                : null;
+        final Path rootPath = root.toPath();
+        final List<HeavyDirectory> heavyDirectories = new ArrayList<>();
+        Files.walkFileTree(rootPath, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (dir.equals(rootPath)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                String name = dir.getFileName().toString();
+                if (name.equals(GIT_DIRECTORY_NAME) || excludedDirectories.contains(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                String path = toRelativePath(rootPath, dir);
+                // parents are not ignored because ignored directories are skipped
+                if (ignoredPaths != null ? ignoredPaths.contains(path) : rules.isExcluded(path, true)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                String gitignore = getGitignore(dir, name);
+                if (gitignore != null) {
+                    HeavyDirectory heavyDirectory = createHeavyDirectory(dir, path, gitignore);
+                    if (heavyDirectory.getSize() >= MIN_SIZE || heavyDirectory.getFileCount() >= MIN_FILE_COUNT) {
+                        heavyDirectories.add(heavyDirectory);
+                    }
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        // e.g. committed dependencies (vendoring) must not be ignored
+        heavyDirectories.removeAll(getTrackedDirectories(heavyDirectories));
+        Collections.sort(heavyDirectories, HeavyDirectory.BY_SIZE);
+        return heavyDirectories;
+    }
+
+    /**
+     * Get paths which git ignores with all exclude sources. Ignored
+     * directories are not expanded.
+     *
+     * @return paths relative to the root, {@code null} if the root is not in a
+     * repository
+     */
+    private Set<String> getIgnoredPaths() {
+        String output = Git.run(root, "ls-files", "-z", "--others", "--ignored", "--directory", "--exclude-standard"); // NOI18N
+        if (output == null) {
+            return null;
+        }
+        Set<String> ignoredPaths = new HashSet<>();
+        for (String path : Git.splitNul(output)) {
+            ignoredPaths.add(path.endsWith("/") ? path.substring(0, path.length() - 1) : path); // NOI18N
+        }
+        return ignoredPaths;
+    }
+
+    /**
+     * Get directories which contain files tracked by git. Nothing is tracked
+     * if git is not available or the root is not in a repository.
+     */
+    private List<HeavyDirectory> getTrackedDirectories(List<HeavyDirectory> directories) {
+        if (directories.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> arguments = new ArrayList<>();
+        arguments.add("ls-files"); // NOI18N
+        arguments.add("-z"); // NOI18N
+        arguments.add("--"); // NOI18N
+        directories.forEach((directory) -> {
+            arguments.add(directory.getPath());
+        });
+        String output = Git.run(root, arguments);
+        if (output == null) {
+            return Collections.emptyList();
+        }
+        List<String> trackedFiles = Git.splitNul(output);
+        List<HeavyDirectory> trackedDirectories = new ArrayList<>();
+        for (HeavyDirectory directory : directories) {
+            String prefix = directory.getPath() + "/"; // NOI18N
+            for (String trackedFile : trackedFiles) {
+                if (trackedFile.startsWith(prefix)) {
+                    trackedDirectories.add(directory);
+                    break;
+                }
+            }
+        }
+        return trackedDirectories;
+    }
+
+    private HeavyDirectory createHeavyDirectory(Path dir, String path, String gitignore) throws IOException {
+        final long[] sizeAndCount = new long[2];
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                sizeAndCount[0] += attrs.size();
+                sizeAndCount[1]++;
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return new HeavyDirectory(root, path, gitignore, sizeAndCount[0], sizeAndCount[1]);
+    }
+
+    private static String getGitignore(Path dir, String name) {
+        String gitignore = HEAVY_DIRECTORIES.get(name);
+        // cargo also uses the target directory
+        if ("maven".equals(gitignore) // NOI18N
+                && Files.exists(dir.resolveSibling("Cargo.toml"))) { // NOI18N
+            return "rust"; // NOI18N
+        }
+        return gitignore;
+    }
+
+    /**
+     * Get names of heavy directories which the template ignores.
+     *
+     * @param gitignore gitignore.io template name e.g. "maven"
+     * @return sorted directory names, empty if there is no heavy directory
+     */
+    static List<String> getDirectoryNames(String gitignore) {
+        Set<String> names = new TreeSet<>();
+        HEAVY_DIRECTORIES.forEach((name, template) -> {
+            if (template.equals(gitignore)) {
+                names.add(name);
+            }
+        });
+        if ("rust".equals(gitignore)) { // NOI18N
+            names.add("target"); // NOI18N
+        }
+        return new ArrayList<>(names);
+    }
+
+    static String toRelativePath(Path root, Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+}
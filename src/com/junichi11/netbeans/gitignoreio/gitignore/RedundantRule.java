@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.gitignore;
+
+/**
+ * A rule which can be removed without changing the ignore semantics.
+ *
+ * @author junichi11
+ */
+public final class RedundantRule {
+
+    public enum Reason {
+        /**
+         * The same rule exists after it.
+         */
+        DUPLICATE,
+        /**
+         * A broader rule before it already ignores all paths it matches, or a
+         * broader rule after it matches all its paths instead of it.
+         */
+        SUBSUMED,
+        /**
+         * A negated rule which no earlier rule can conflict with.
+         */
+        DEAD_NEGATION,
+    }
+
+    private final GitignoreRule rule;
+    private final GitignoreRule cause;
+    private final Reason reason;
+
+    RedundantRule(GitignoreRule rule, GitignoreRule cause, Reason reason) {
+        this.rule = rule;
+        this.cause = cause;
+        this.reason = reason;
+    }
+
+    public GitignoreRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Get the rule which makes the rule redundant.
+     *
+     * @return the rule, {@code null} if the reason is
+     * {@link Reason#DEAD_NEGATION}
+     */
+    public GitignoreRule getCause() {
+        return cause;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return rule + " (" + reason + ")"; // NOI18N
+    }
+}
@@ -0,0 +1,536 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.gitignore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Find rules of a .gitignore file which can be removed without changing the
+ * ignore semantics.
+ *
+ * Each rule is removed only if it is proved redundant against the remaining
+ * rules, so the minimized rules ignore exactly the same paths. The proofs are
+ * conservative: a rule is kept whenever the patterns are too complex to
+ * compare. The result is also verified against the actual tree.
+ *
+ * @author junichi11
+ */
+public final class RedundantRuleAnalyzer {
+
+    private static final String GITIGNORE_NAME = ".gitignore"; // NOI18N
+    private static final String GIT_DIRECTORY_NAME = ".git"; // NOI18N
+    private static final int MAX_VERIFIED_PATHS = 100000;
+    private static final Pattern LINE_SEPARATOR_PATTERN = Pattern.compile("\\r\\n|\\n|\\r"); // NOI18N
+    private final File root;
+
+    public RedundantRuleAnalyzer(File root) {
+        this.root = root;
+    }
+
+    public static final class Result {
+
+        private final List<String> lines;
+        private final String lineSeparator;
+        private final boolean endsWithLineSeparator;
+        private final List<RedundantRule> redundantRules;
+        private final String mismatchedPath;
+
+        Result(List<String> lines, String lineSeparator, boolean endsWithLineSeparator, List<RedundantRule> redundantRules, String mismatchedPath) {
+            this.lines = lines;
+            this.lineSeparator = lineSeparator;
+            this.endsWithLineSeparator = endsWithLineSeparator;
+            this.redundantRules = redundantRules;
+            this.mismatchedPath = mismatchedPath;
+        }
+
+        public List<RedundantRule> getRedundantRules() {
+            return Collections.unmodifiableList(redundantRules);
+        }
+
+        /**
+         * Check whether the minimized rules ignore the same paths of the tree.
+         *
+         * @return {@code true} if there is no mismatch, otherwise {@code false}
+         */
+        public boolean isVerified() {
+            return mismatchedPath == null;
+        }
+
+        /**
+         * Get the path which is ignored differently by the minimized rules.
+         *
+         * @return the path, {@code null} if there is no mismatch
+         */
+        public String getMismatchedPath() {
+            return mismatchedPath;
+        }
+
+        /**
+         * Get the lines of the .gitignore file without redundant rules.
+         * Comments and blank lines are kept.
+         *
+         * @return lines
+         */
+        public List<String> getMinimizedLines() {
+            Set<Integer> removed = new HashSet<>();
+            redundantRules.forEach((redundantRule) -> {
+                removed.add(redundantRule.getRule().getLineNumber());
+            });
+            List<String> minimized = new ArrayList<>(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                if (!removed.contains(i)) {
+                    minimized.add(lines.get(i));
+                }
+            }
+            return minimized;
+        }
+
+        /**
+         * Get the content of the .gitignore file without redundant rules. The
+         * line separator of the original file (e.g. CRLF) is kept.
+         *
+         * @return the content
+         */
+        public String getMinimizedContent() {
+            List<String> minimized = getMinimizedLines();
+            String content = String.join(lineSeparator, minimized);
+            if (endsWithLineSeparator && !minimized.isEmpty()) {
+                content += lineSeparator;
+            }
+            return content;
+        }
+    }
+
+    /**
+     * Analyze the .gitignore file of the root directory.
+     *
+     * @return the result
+     * @throws CharacterCodingException if the file is not encoded in UTF-8
+     * @throws IOException
+     */
+    public Result analyze() throws IOException {
+        File gitignoreFile = new File(root, GITIGNORE_NAME);
+        String content = ""; // NOI18N
+        if (gitignoreFile.isFile()) {
+            // a decoder reports malformed input instead of replacing it
+            byte[] bytes = Files.readAllBytes(gitignoreFile.toPath());
+            content = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+        }
+        List<String> lines = new ArrayList<>(Arrays.asList(LINE_SEPARATOR_PATTERN.split(content, -1)));
+        // the last empty element is not a line
+        boolean endsWithLineSeparator = lines.get(lines.size() - 1).isEmpty();
+        if (endsWithLineSeparator) {
+            lines.remove(lines.size() - 1);
+        }
+        Matcher matcher = LINE_SEPARATOR_PATTERN.matcher(content);
+        String lineSeparator = matcher.find() ? matcher.group() : "\n"; // NOI18N
+        GitignoreRules original = GitignoreRules.parse(lines);
+        List<GitignoreRule> rules = new ArrayList<>(original.getRules());
+        List<RedundantRule> redundantRules = new ArrayList<>();
+        // a negated rule may re-include paths which other files exclude
+        boolean hasExternalExcludes = hasExternalExcludes(root);
+        // removing a dead negation may make other rules redundant
+        int size;
+        do {
+            size = rules.size();
+            removeShadowed(rules, redundantRules);
+            removeSubsumed(rules, redundantRules);
+            if (!hasExternalExcludes) {
+                removeDeadNegations(rules, redundantRules);
+            }
+        } while (size != rules.size());
+        String mismatchedPath = null;
+        if (!redundantRules.isEmpty()) {
+            mismatchedPath = verify(original, GitignoreRules.create(rules), redundantRules);
+        }
+        return new Result(lines, lineSeparator, endsWithLineSeparator, redundantRules, mismatchedPath);
+    }
+
+    // an earlier rule is never the last matching rule if a later rule matches all its paths
+    private static void removeShadowed(List<GitignoreRule> rules, List<RedundantRule> redundantRules) {
+        for (int i = 0; i < rules.size(); i++) {
+            GitignoreRule rule = rules.get(i);
+            for (int j = rules.size() - 1; j > i; j--) {
+                GitignoreRule later = rules.get(j);
+                if (isSame(rule, later)) {
+                    redundantRules.add(new RedundantRule(rule, later, RedundantRule.Reason.DUPLICATE));
+                } else if (!later.isNegated() && matchesAll(later, rule)) {
+                    // e.g. "debug.log" and "*.log", "/target/" and "target/"
+                    redundantRules.add(new RedundantRule(rule, later, RedundantRule.Reason.SUBSUMED));
+                } else {
+                    continue;
+                }
+                rules.remove(i);
+                i--;
+                break;
+            }
+        }
+    }
+
+    private static void removeSubsumed(List<GitignoreRule> rules, List<RedundantRule> redundantRules) {
+        for (int j = 0; j < rules.size(); j++) {
+            GitignoreRule narrow = rules.get(j);
+            if (narrow.isNegated()) {
+                continue;
+            }
+            for (int i = j - 1; i >= 0; i--) {
+                GitignoreRule broad = rules.get(i);
+                if (broad.isNegated()) {
+                    // the broad rule may not be the last matching rule
+                    break;
+                }
+                if (matchesAll(broad, narrow) || (!hasNegationAfter(rules, i) && excludesParents(broad, narrow))) {
+                    redundantRules.add(new RedundantRule(narrow, broad, RedundantRule.Reason.SUBSUMED));
+                    rules.remove(j);
+                    j--;
+                    break;
+                }
+            }
+        }
+    }
+
+    // a negated rule works only for paths which an earlier rule excludes
+    private static void removeDeadNegations(List<GitignoreRule> rules, List<RedundantRule> redundantRules) {
+        for (int j = 0; j < rules.size(); j++) {
+            GitignoreRule negation = rules.get(j);
+            if (!negation.isNegated()) {
+                continue;
+            }
+            boolean isDead = true;
+            for (int i = 0; i < j; i++) {
+                GitignoreRule rule = rules.get(i);
+                if (!rule.isNegated() && mayOverlap(rule, negation)) {
+                    isDead = false;
+                    break;
+                }
+            }
+            if (isDead) {
+                redundantRules.add(new RedundantRule(negation, null, RedundantRule.Reason.DEAD_NEGATION));
+                rules.remove(j);
+                j--;
+            }
+        }
+    }
+
+    /**
+     * Check whether files other than the .gitignore file of the directory may
+     * exclude paths of the directory, i.e. .gitignore files of the parent
+     * directories, .git/info/exclude and core.excludesFile.
+     *
+     * @param directory the directory
+     * @return {@code true} if there are rules in other files, otherwise
+     * {@code false}
+     */
+    static boolean hasExternalExcludes(File directory) {
+        File topLevel = getTopLevel(directory);
+        // the parent directories up to the root if the directory is not in a repository
+        for (File parent = directory.getAbsoluteFile().getParentFile(); parent != null; parent = parent.getParentFile()) {
+            if (topLevel != null && !parent.toPath().startsWith(topLevel.toPath())) {
+                break;
+            }
+            if (hasRules(new File(parent, GITIGNORE_NAME))) {
+                return true;
+            }
+        }
+        return hasRules(getInfoExcludeFile(directory, topLevel)) || hasRules(getGlobalExcludesFile(directory));
+    }
+
+    private static File getTopLevel(File directory) {
+        String output = Git.run(directory, "rev-parse", "--show-toplevel"); // NOI18N
+        if (output != null) {
+            return new File(output.trim()).getAbsoluteFile();
+        }
+        // git is not available
+        for (File parent = directory.getAbsoluteFile(); parent != null; parent = parent.getParentFile()) {
+            if (new File(parent, GIT_DIRECTORY_NAME).exists()) {
+                return parent;
+            }
+        }
+        return null;
+    }
+
+    private static File getInfoExcludeFile(File directory, File topLevel) {
+        String output = Git.run(directory, "rev-parse", "--git-path", "info/exclude"); // NOI18N
+        if (output != null) {
+            File file = new File(output.trim());
+            return file.isAbsolute() ? file : new File(directory, output.trim());
+        }
+        return topLevel == null ? null : new File(topLevel, GIT_DIRECTORY_NAME + "/info/exclude"); // NOI18N
+    }
+
+    private static File getGlobalExcludesFile(File directory) {
+        String output = Git.run(directory, "config", "--path", "--get", "core.excludesFile"); // NOI18N
+        if (output != null && !output.trim().isEmpty()) {
+            return new File(output.trim());
+        }
+        // the default is $XDG_CONFIG_HOME/git/ignore
+        String configHome = System.getenv("XDG_CONFIG_HOME"); // NOI18N
+        if (configHome == null || configHome.isEmpty()) {
+            configHome = new File(System.getProperty("user.home"), ".config").getPath(); // NOI18N
+        }
+        return new File(configHome, "git/ignore"); // NOI18N
+    }
+
+    private static boolean hasRules(File excludeFile) {
+        if (excludeFile == null) {
+            return false;
+        }
+        try {
+            return !GitignoreRules.parse(excludeFile).getRules().isEmpty();
+        } catch (IOException ex) {
+            // may have rules
+            return true;
+        }
+    }
+
+    private static boolean hasNegationAfter(List<GitignoreRule> rules, int index) {
+        for (int i = index + 1; i < rules.size(); i++) {
+            if (rules.get(i).isNegated()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSame(GitignoreRule rule, GitignoreRule other) {
+        return rule.isNegated() == other.isNegated()
+                && rule.isDirectoryOnly() == other.isDirectoryOnly()
+                && rule.isAnchored() == other.isAnchored()
+                && rule.getPattern().equals(other.getPattern());
+    }
+
+    /**
+     * Check whether the broad rule matches all paths which the narrow rule
+     * matches.
+     */
+    private static boolean matchesAll(GitignoreRule broad, GitignoreRule narrow) {
+        if (broad.isDirectoryOnly() && !narrow.isDirectoryOnly()) {
+            return false;
+        }
+        String[] narrowSegments = narrow.getPattern().split("/"); // NOI18N
+        if (!broad.isAnchored()) {
+            // matches the last segment at any depth
+            return subsumesSegment(broad.getPattern(), narrowSegments[narrowSegments.length - 1]);
+        }
+        if (!narrow.isAnchored()) {
+            return false;
+        }
+        String[] broadSegments = broad.getPattern().split("/"); // NOI18N
+        if (broadSegments.length != narrowSegments.length) {
+            return false;
+        }
+        for (int i = 0; i < broadSegments.length; i++) {
+            if (!subsumesSegment(broadSegments[i], narrowSegments[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether the broad rule excludes one of the parent directories of
+     * all paths which the narrow rule matches. git doesn't list files in
+     * excluded directories unless a negated rule re-includes them.
+     */
+    private static boolean excludesParents(GitignoreRule broad, GitignoreRule narrow) {
+        if (!narrow.isAnchored()) {
+            return false;
+        }
+        String[] narrowSegments = narrow.getPattern().split("/"); // NOI18N
+        if (!broad.isAnchored()) {
+            for (int i = 0; i < narrowSegments.length - 1; i++) {
+                if (narrowSegments[i].contains("**")) { // NOI18N
+                    return false;
+                }
+                if (subsumesSegment(broad.getPattern(), narrowSegments[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        String[] broadSegments = broad.getPattern().split("/"); // NOI18N
+        if (broadSegments.length >= narrowSegments.length) {
+            return false;
+        }
+        for (int i = 0; i < broadSegments.length; i++) {
+            if (narrowSegments[i].contains("**") // NOI18N
+                    || !subsumesSegment(broadSegments[i], narrowSegments[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether the broad glob matches all names which the narrow glob
+     * matches. Only simple globs are compared.
+     */
+    static boolean subsumesSegment(String broad, String narrow) {
+        if (broad.equals(narrow)) {
+            return true;
+        }
+        if (broad.contains("**") || narrow.contains("**") // NOI18N
+                || broad.indexOf('\\') != -1 || narrow.indexOf('\\') != -1) {
+            return false;
+        }
+        if (!hasWildcard(narrow)) {
+            GitignoreRule rule = GitignoreRule.parse(0, "/" + broad); // NOI18N
+            return rule != null && rule.matches(narrow, false);
+        }
+        int star = broad.indexOf('*');
+        if (star == -1 || star != broad.lastIndexOf('*') || broad.indexOf('?') != -1 || broad.indexOf('[') != -1) {
+            return false;
+        }
+        // "prefix*suffix" matches all names which start with the prefix and end with the suffix
+        String prefix = broad.substring(0, star);
+        String suffix = broad.substring(star + 1);
+        String leading = narrow.substring(0, firstWildcard(narrow));
+        String trailing = narrow.substring(lastWildcard(narrow) + 1);
+        return leading.startsWith(prefix) && trailing.endsWith(suffix);
+    }
+
+    /**
+     * Check whether there may be a path which both rules match. This returns
+     * {@code false} only if the last segments can never match the same name.
+     */
+    private static boolean mayOverlap(GitignoreRule rule, GitignoreRule other) {
+        String name = getLastSegment(rule.getPattern());
+        String otherName = getLastSegment(other.getPattern());
+        if (name.equals(otherName)) {
+            return true;
+        }
+        if (name.contains("**") || otherName.contains("**") // NOI18N
+                || name.indexOf('\\') != -1 || otherName.indexOf('\\') != -1) {
+            return true;
+        }
+        if (hasWildcard(name) && hasWildcard(otherName)) {
+            return true;
+        }
+        if (hasWildcard(otherName)) {
+            return subsumesSegment(otherName, name);
+        }
+        return subsumesSegment(name, otherName);
+    }
+
+    private static String getLastSegment(String pattern) {
+        return pattern.substring(pattern.lastIndexOf('/') + 1);
+    }
+
+    private static boolean hasWildcard(String glob) {
+        return firstWildcard(glob) != glob.length();
+    }
+
+    private static int firstWildcard(String glob) {
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?' || c == '[') {
+                return i;
+            }
+        }
+        return glob.length();
+    }
+
+    private static int lastWildcard(String glob) {
+        for (int i = glob.length() - 1; i >= 0; i--) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?' || c == ']') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compare both rules against the tree and the removed patterns.
+     *
+     * @return the first mismatched path, {@code null} if there is no mismatch
+     */
+    private String verify(final GitignoreRules original, final GitignoreRules minimized, List<RedundantRule> redundantRules) throws IOException {
+        for (RedundantRule redundantRule : redundantRules) {
+            String pattern = redundantRule.getRule().getPattern();
+            if (!hasWildcard(pattern)
+                    && (original.isIgnored(pattern, true) != minimized.isIgnored(pattern, true)
+                    || original.isIgnored(pattern, false) != minimized.isIgnored(pattern, false))) {
+                return pattern;
+            }
+        }
+        if (!root.isDirectory()) {
+            return null;
+        }
+        final Path rootPath = root.toPath();
+        final String[] mismatchedPath = new String[1];
+        Files.walkFileTree(rootPath, new SimpleFileVisitor<Path>() {
+            private int count = 0;
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (dir.equals(rootPath)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                if (dir.getFileName().toString().equals(GIT_DIRECTORY_NAME)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                String path = HeavyDirectoryAuditor.toRelativePath(rootPath, dir);
+                boolean ignored = original.isIgnored(path, true);
+                if (ignored != minimized.isIgnored(path, true)) {
+                    mismatchedPath[0] = path;
+                    return FileVisitResult.TERMINATE;
+                }
+                // all children of an ignored directory are ignored by both rules
+                return ignored ? FileVisitResult.SKIP_SUBTREE : next();
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                String path = HeavyDirectoryAuditor.toRelativePath(rootPath, file);
+                boolean isDirectory = attrs.isDirectory();
+                if (original.isIgnored(path, isDirectory) != minimized.isIgnored(path, isDirectory)) {
+                    mismatchedPath[0] = path;
+                    return FileVisitResult.TERMINATE;
+                }
+                return next();
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                return FileVisitResult.CONTINUE;
+            }
+
+            private FileVisitResult next() {
+                count++;
+                return count < MAX_VERIFIED_PATHS ? FileVisitResult.CONTINUE : FileVisitResult.TERMINATE;
+            }
+        });
+        return mismatchedPath[0];
+    }
+}
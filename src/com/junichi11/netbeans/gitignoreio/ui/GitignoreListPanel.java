@@ -15,22 +15,22 @@
  */
 package com.junichi11.netbeans.gitignoreio.ui;
 
+import com.junichi11.netbeans.gitignoreio.client.GitignoreioClient;
 import com.junichi11.netbeans.gitignoreio.options.GitignoreioOptions;
 import java.awt.Dialog;
-import java.io.BufferedInputStream;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import javax.net.ssl.HttpsURLConnection;
 import javax.swing.DefaultListModel;
 import javax.swing.JList;
 import javax.swing.JPanel;
@@ -53,14 +53,14 @@ public class GitignoreListPanel extends JPanel {
 
     private volatile boolean isConnectedNetwork = true;
     private volatile boolean initilized = false;
+    private String defaultMessage = ""; // NOI18N
+    private final GitignoreioClient client;
+    // published only after the whole list is loaded
+    private SortedSet<String> availableGitignores;
+    private boolean isLoading = false;
+    private RequestProcessor.Task loadTask;
 
-    private static final String GITIGNORE_API = "https://www.gitignore.io/api/"; // NOI18N
-    private static final String GITIGNORE_API_LIST = GITIGNORE_API + "list"; // NOI18N
-    private static final String FORMAT_LINES = "lines"; // NOI18N
-    private static final String FORMAT_JSON = "json"; // NOI18N
-    private static final String UTF8 = "UTF-8"; // NOI18N
     private static final String GITIGNORE_LAST_FOLDER_SUFFIX = ".gitignore"; // NOI18N
-    private static List<String> GITIGNORES;
     private static final GitignoreListPanel INSTANCE = new GitignoreListPanel();
     private static final long serialVersionUID = -5226048221599145625L;
     private static final Logger LOGGER = Logger.getLogger(GitignoreListPanel.class.getName());
@@ -70,24 +70,30 @@ public class GitignoreListPanel extends JPanel {
      * Creates new form GitignoreListPanel
      */
     public GitignoreListPanel() {
+        this(GitignoreioClient.getInstance());
+    }
+
+    GitignoreListPanel(GitignoreioClient client) {
+        this.client = client;
         initComponents();
     }
 
     public static GitignoreListPanel getDefault() {
-        if (!INSTANCE.initilized) {
-            INSTANCE.init();
-            INSTANCE.initilized = true;
-        }
+        INSTANCE.prepare();
+        return INSTANCE;
+    }
 
-        // retry
-        if (!INSTANCE.isConnectedNetwork) {
-            INSTANCE.init();
+    void prepare() {
+        if (!initilized) {
+            init();
+            initilized = true;
         }
-        return INSTANCE;
+        // retry if the last load failed
+        loadAvailableGitignores();
     }
 
     private void init() {
-        setMessage(""); // NOI18N
+        setMessage(defaultMessage);
         DefaultListModel<String> model = new DefaultListModel<>();
         availableList.setModel(model);
         addGitignores(""); // NOI18N
@@ -125,35 +131,34 @@ public class GitignoreListPanel extends JPanel {
         DefaultListModel<String> model = (DefaultListModel<String>) availableList.getModel();
         model.clear();
 
-        filter = filter.replaceAll("\\s+", " "); // NOI18N
-        String[] filters = filter.split(" "); // NOI18N
-        List<String> availableGitignores = getAvailableGitignores();
+        Collection<String> availableGitignores = getAvailableGitignores();
         if (availableGitignores != null) {
-            availableGitignores.forEach((gitignore) -> {
-                for (String f : filters) {
-                    if (gitignore.contains(f)) {
-                        model.addElement(gitignore);
-                    }
-                }
+            filterGitignores(availableGitignores, filter).forEach((gitignore) -> {
+                model.addElement(gitignore);
             });
             availableList.setModel(model);
         }
     }
 
-    public String getGitignoreContent() throws MalformedURLException, IOException {
-        String gitignores = getGitignores();
-        String url = GITIGNORE_API + gitignores;
-        HttpsURLConnection connection = openUrlConnection(url);
-        return getContent(connection, UTF8);
-    }
-
-    private HttpsURLConnection openUrlConnection(String url) throws IOException {
-        HttpsURLConnection connection = (HttpsURLConnection) new URL(url).openConnection();
-        connection.setRequestMethod("GET"); // NOI18N
-        connection.setRequestProperty("User-Agent", "NetBeans Plugin");
-        connection.setReadTimeout(2000);
-        connection.setConnectTimeout(2000);
-        return connection;
+    /**
+     * Get gitignores which contain one of the space separated filters.
+     *
+     * @param gitignores gitignores
+     * @param filter space separated filters
+     * @return filtered gitignores
+     */
+    static List<String> filterGitignores(Collection<String> gitignores, String filter) {
+        filter = filter.replaceAll("\\s+", " "); // NOI18N
+        String[] filters = filter.split(" "); // NOI18N
+        List<String> filtered = new ArrayList<>();
+        gitignores.forEach((gitignore) -> {
+            for (String f : filters) {
+                if (gitignore.contains(f)) {
+                    filtered.add(gitignore);
+                }
+            }
+        });
+        return filtered;
     }
 
     public String getGitignores() {
@@ -202,6 +207,26 @@ public class GitignoreListPanel extends JPanel {
         messageLabel.setText(message);
     }
 
+    /**
+     * Show gitignores detected in the target directory.
+     *
+     * @param gitignores gitignore names
+     */
+    @NbBundle.Messages({
+        "# {0} - gitignores",
+        "GitignoreListPanel.message.suggested=Suggested: {0}"
+    })
+    public void setSuggestedGitignores(List<String> gitignores) {
+        if (gitignores.isEmpty()) {
+            defaultMessage = ""; // NOI18N
+        } else {
+            defaultMessage = Bundle.GitignoreListPanel_message_suggested(String.join(",", gitignores)); // NOI18N
+        }
+        if (getAvailableGitignores() != null) {
+            setMessage(defaultMessage);
+        }
+    }
+
     @NbBundle.Messages({
         "GitignoreListPanel.dialog.title=gitignore.io available list",
         "GitignoreListPanel.network.error=You have to connect to the Internet."
@@ -217,74 +242,89 @@ public class GitignoreListPanel extends JPanel {
         return descriptor;
     }
 
+    /**
+     * Get the available gitignores.
+     *
+     * @return gitignores, {@code null} if they are not loaded yet or the last
+     * load failed
+     */
+    private synchronized Collection<String> getAvailableGitignores() {
+        return availableGitignores;
+    }
+
+    /**
+     * Load the available gitignores in the background unless they are already
+     * loaded or being loaded. The list is not reloaded while the filter is
+     * typed, a failed load is retried when the dialog is opened next time.
+     */
     @NbBundle.Messages({
         "GitignoreListPanel.message.getting=Getting the available list...",
+        "GitignoreListPanel.message.connection.error=Connection error"
     })
-    private synchronized List<String> getAvailableGitignores() {
-        if (GITIGNORES == null) {
-            setMessage(Bundle.GitignoreListPanel_message_getting());
-            RP.post(() -> {
-                GITIGNORES = new ArrayList<>();
-                String gitignoreList = getAvailableGitignoresText();
-                if (gitignoreList != null) {
-                    String[] gitignores = splitGitignores(gitignoreList);
-                    Arrays.sort(gitignores);
-                    GITIGNORES.addAll(Arrays.asList(gitignores));
-                    SwingUtilities.invokeLater(() -> {
-                        addGitignores(""); // NOI18N
-                        setMessage(""); // NOI18N
-                    });
+    private synchronized void loadAvailableGitignores() {
+        if (availableGitignores != null || isLoading) {
+            return;
+        }
+        isLoading = true;
+        // the result of the retry is shown as the message
+        isConnectedNetwork = true;
+        setMessage(Bundle.GitignoreListPanel_message_getting());
+        loadTask = RP.post(() -> {
+            // items are sorted as they are read from the response
+            SortedSet<String> gitignores = new TreeSet<>();
+            boolean isLoaded = readAvailableGitignores(gitignores);
+            synchronized (this) {
+                if (isLoaded) {
+                    availableGitignores = Collections.unmodifiableSortedSet(gitignores);
+                }
+                isLoading = false;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (isLoaded) {
+                    addGitignores(filterTextField.getText());
+                    setMessage(defaultMessage);
+                } else {
+                    setMessage(Bundle.GitignoreListPanel_message_connection_error());
                 }
             });
-        }
-        return GITIGNORES;
+        });
     }
 
-    @NbBundle.Messages({
-        "GitignoreListPanel.message.connection.error=Connection error",
-    })
-    private String getAvailableGitignoresText() {
-        String list = null;
+    private boolean readAvailableGitignores(Collection<String> gitignores) {
         try {
             // #5 now use the "lines" format option
-            HttpsURLConnection openConnection = openUrlConnection(getApiListURL(FORMAT_LINES));
-            list = getContent(openConnection, UTF8);
-            isConnectedNetwork = true;
+            client.readAvailableGitignores(GitignoreioClient.FORMAT_LINES, gitignores::add);
+            return true;
         } catch (MalformedURLException ex) {
             LOGGER.log(Level.WARNING, ex.getMessage());
-            isConnectedNetwork = false;
         } catch (IOException ex) {
             LOGGER.log(Level.WARNING, ex.getMessage());
-            setMessage(Bundle.GitignoreListPanel_message_connection_error());
-            isConnectedNetwork = false;
         }
-        return list;
-    }
-
-    private String getApiListURL(String format) {
-        String formatParam = String.format("format=%s", format); // NOI18N
-        StringBuilder sb = new StringBuilder();
-        sb.append(GITIGNORE_API_LIST);
-        sb.append("?"); // NOI18N
-        sb.append(formatParam);
-        return sb.toString();
+        isConnectedNetwork = false;
+        return false;
     }
 
-    private String getContent(URLConnection connection, String charset) throws IOException {
-        StringBuilder sb = new StringBuilder();
-        BufferedInputStream inuptStream = new BufferedInputStream(connection.getInputStream());
-        BufferedReader reader = new BufferedReader(new InputStreamReader(inuptStream, charset)); // NOI18N
-        String line;
-        while ((line = reader.readLine()) != null) {
-            sb.append(line).append("\n"); // NOI18N
+    /**
+     * Wait for the running load and the update of the list.
+     */
+    void waitForAvailableGitignores() throws InterruptedException, InvocationTargetException {
+        RequestProcessor.Task task;
+        synchronized (this) {
+            task = loadTask;
         }
+        if (task != null) {
+            task.waitFinished();
+        }
+        SwingUtilities.invokeAndWait(() -> {
+        });
+    }
 
-        return sb.toString();
+    void setFilter(String filter) {
+        filterTextField.setText(filter);
     }
 
-    private String[] splitGitignores(String gitignores) {
-        // #5 new use the "lines" format option
-        return gitignores.split("\n"); // NOI18N
+    List<String> getAvailableListItems() {
+        return Collections.list(((DefaultListModel<String>) availableList.getModel()).elements());
     }
 
     private GitignoreioOptions getOptions() {
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.ui;
+
+import com.junichi11.netbeans.gitignoreio.gitignore.GitignoreTemplateIndex;
+import java.awt.Image;
+import java.util.List;
+import javax.swing.event.ChangeListener;
+import org.netbeans.api.project.Project;
+import org.netbeans.spi.project.ProjectIconAnnotator;
+import org.openide.util.ImageUtilities;
+import org.openide.util.NbBundle;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * Add a badge to the project icon if the .gitignore doesn't contain templates
+ * detected in the project directory.
+ *
+ * @author junichi11
+ */
+@ServiceProvider(service = ProjectIconAnnotator.class)
+public final class MissingGitignoreIconAnnotator implements ProjectIconAnnotator {
+
+    private static final String BADGE_PATH = "com/junichi11/netbeans/gitignoreio/resources/missing-gitignore-badge.png"; // NOI18N
+
+    @NbBundle.Messages({
+        "# {0} - gitignores",
+        "MissingGitignoreIconAnnotator.tooltip=.gitignore doesn't contain: {0}"
+    })
+    @Override
+    public Image annotateIcon(Project project, Image original, boolean openedNode) {
+        // empty until the index is built, a change is fired after that
+        List<String> missingGitignores = GitignoreTemplateIndex.forDirectory(project.getProjectDirectory()).getMissingGitignores();
+        if (missingGitignores.isEmpty()) {
+            return original;
+        }
+        Image badge = ImageUtilities.assignToolTipToImage(
+                ImageUtilities.loadImage(BADGE_PATH),
+                Bundle.MissingGitignoreIconAnnotator_tooltip(String.join(",", missingGitignores)) // NOI18N
+        );
+        return ImageUtilities.mergeImages(original, badge, 8, 8);
+    }
+
+    @Override
+    public void addChangeListener(ChangeListener listener) {
+        GitignoreTemplateIndex.addChangeListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(ChangeListener listener) {
+        GitignoreTemplateIndex.removeChangeListener(listener);
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.ui.actions;
+
+import com.junichi11.netbeans.gitignoreio.gitignore.HeavyDirectory;
+import com.junichi11.netbeans.gitignoreio.gitignore.HeavyDirectoryAuditor;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.DefaultListModel;
+import javax.swing.JList;
+import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
+import org.netbeans.api.project.Project;
+import org.netbeans.api.project.ProjectUtils;
+import org.netbeans.api.project.ui.OpenProjects;
+import org.openide.DialogDescriptor;
+import org.openide.DialogDisplayer;
+import org.openide.NotifyDescriptor;
+import org.openide.awt.ActionID;
+import org.openide.awt.ActionReference;
+import org.openide.awt.ActionReferences;
+import org.openide.awt.ActionRegistration;
+import org.openide.awt.StatusDisplayer;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.NbBundle;
+import org.openide.util.NbBundle.Messages;
+import org.openide.util.RequestProcessor;
+
+@ActionID(
+        category = "Versioning",
+        id = "com.junichi11.netbeans.gitignoreio.ui.actions.AuditGitignoreAction")
+@ActionRegistration(
+        displayName = "#CTL_AuditGitignoreAction")
+@ActionReferences({
+    @ActionReference(path = "Menu/File", position = 2560)
+})
+@Messages("CTL_AuditGitignoreAction=Audit gitignore files of open projects")
+public final class AuditGitignoreAction implements ActionListener {
+
+    private static final String GITIGNORE_NAME = ".gitignore"; // NOI18N
+    private static final Logger LOGGER = Logger.getLogger(AuditGitignoreAction.class.getName());
+    private static final RequestProcessor RP = new RequestProcessor(AuditGitignoreAction.class);
+    private static final RequestProcessor AUDIT_RP = new RequestProcessor(AuditGitignoreAction.class.getName() + ".audit", Runtime.getRuntime().availableProcessors()); // NOI18N
+
+    @NbBundle.Messages({
+        "AuditGitignoreAction.auditing=Auditing gitignore files...",
+        "AuditGitignoreAction.no.heavy.directories=There are no unignored heavy directories.",
+        "# {0} - project names",
+        "AuditGitignoreAction.failed.projects=Could not audit the following projects (see the log): {0}"
+    })
+    @Override
+    public void actionPerformed(ActionEvent ev) {
+        final Project[] projects = OpenProjects.getDefault().getOpenProjects();
+        if (projects.length == 0) {
+            return;
+        }
+        StatusDisplayer.getDefault().setStatusText(Bundle.AuditGitignoreAction_auditing());
+        RP.post(() -> {
+            List<String> failedProjects = Collections.synchronizedList(new ArrayList<>());
+            List<Item> items = audit(projects, failedProjects);
+            StatusDisplayer.getDefault().setStatusText(""); // NOI18N
+            SwingUtilities.invokeLater(() -> {
+                if (!failedProjects.isEmpty()) {
+                    showDialog(Bundle.AuditGitignoreAction_failed_projects(String.join(", ", failedProjects))); // NOI18N
+                }
+                if (items.isEmpty()) {
+                    if (failedProjects.isEmpty()) {
+                        NotifyDescriptor.Message message = new NotifyDescriptor.Message(
+                                Bundle.AuditGitignoreAction_no_heavy_directories(),
+                                NotifyDescriptor.INFORMATION_MESSAGE
+                        );
+                        DialogDisplayer.getDefault().notify(message);
+                    }
+                    return;
+                }
+                showResults(items);
+            });
+        });
+    }
+
+    private List<Item> audit(Project[] projects, List<String> failedProjects) {
+        // project directory -> project, a directory is audited only once
+        Map<File, Project> projectDirectories = new LinkedHashMap<>();
+        for (Project project : projects) {
+            File projectDirectory = FileUtil.toFile(project.getProjectDirectory());
+            if (projectDirectory != null && !projectDirectories.containsKey(projectDirectory)) {
+                projectDirectories.put(projectDirectory, project);
+            }
+        }
+        List<Callable<List<Item>>> tasks = new ArrayList<>(projectDirectories.size());
+        for (Map.Entry<File, Project> entry : projectDirectories.entrySet()) {
+            File projectDirectory = entry.getKey();
+            // nested projects are audited with their own .gitignore files
+            List<File> nestedDirectories = new ArrayList<>();
+            for (File directory : projectDirectories.keySet()) {
+                if (!directory.equals(projectDirectory) && directory.toPath().startsWith(projectDirectory.toPath())) {
+                    nestedDirectories.add(directory);
+                }
+            }
+            tasks.add(() -> audit(entry.getValue(), projectDirectory, nestedDirectories, failedProjects));
+        }
+        List<Item> items = new ArrayList<>();
+        try {
+            for (Future<List<Item>> future : AUDIT_RP.invokeAll(tasks)) {
+                // a failure of a project must not drop results of other projects
+                try {
+                    items.addAll(future.get());
+                } catch (ExecutionException ex) {
+                    LOGGER.log(Level.WARNING, null, ex);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        Collections.sort(items, (i1, i2) -> HeavyDirectory.BY_SIZE.compare(i1.directory, i2.directory));
+        return items;
+    }
+
+    private List<Item> audit(Project project, File projectDirectory, List<File> nestedDirectories, List<String> failedProjects) {
+        String projectName = ProjectUtils.getInformation(project).getDisplayName();
+        List<Item> items = new ArrayList<>();
+        try {
+            for (HeavyDirectory directory : new HeavyDirectoryAuditor(projectDirectory, nestedDirectories).audit()) {
+                items.add(new Item(projectName, directory));
+            }
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, projectName, ex);
+            failedProjects.add(projectName);
+        }
+        return items;
+    }
+
+    @NbBundle.Messages({
+        "AuditGitignoreAction.dialog.title=Unignored heavy directories",
+        "AuditGitignoreAction.dialog.add=Add gitignores"
+    })
+    private void showResults(List<Item> items) {
+        DefaultListModel<Item> model = new DefaultListModel<>();
+        items.forEach((item) -> {
+            model.addElement(item);
+        });
+        JList<Item> list = new JList<>(model);
+        list.setSelectionInterval(0, items.size() - 1);
+        list.setVisibleRowCount(Math.min(items.size(), 15));
+        String addOption = Bundle.AuditGitignoreAction_dialog_add();
+        DialogDescriptor descriptor = new DialogDescriptor(
+                new JScrollPane(list),
+                Bundle.AuditGitignoreAction_dialog_title(),
+                true,
+                new Object[]{addOption, DialogDescriptor.CANCEL_OPTION},
+                addOption,
+                DialogDescriptor.DEFAULT_ALIGN,
+                null,
+                null
+        );
+        if (DialogDisplayer.getDefault().notify(descriptor) != addOption) {
+            return;
+        }
+        List<Item> selectedItems = list.getSelectedValuesList();
+        if (!selectedItems.isEmpty()) {
+            RP.post(() -> addGitignores(selectedItems));
+        }
+    }
+
+    private void addGitignores(List<Item> items) {
+        Map<File, Set<String>> gitignores = new LinkedHashMap<>();
+        for (Item item : items) {
+            HeavyDirectory directory = item.directory;
+            Set<String> names = gitignores.get(directory.getRoot());
+            if (names == null) {
+                names = new LinkedHashSet<>();
+                gitignores.put(directory.getRoot(), names);
+            }
+            names.add(directory.getGitignore());
+        }
+        for (Map.Entry<File, Set<String>> entry : gitignores.entrySet()) {
+            File gitignoreFile = new File(entry.getKey(), GITIGNORE_NAME);
+            try {
+                boolean isPostscript = gitignoreFile.exists();
+                File gitignoreContent = GenerateGitIgnoreAction.downloadGitignores(String.join(",", entry.getValue()), isPostscript); // NOI18N
+                try {
+                    gitignoreFile.createNewFile();
+                    GenerateGitIgnoreAction.writeFile(gitignoreFile, gitignoreContent, isPostscript);
+                } finally {
+                    GenerateGitIgnoreAction.deleteFile(gitignoreContent);
+                }
+            } catch (IOException ex) {
+                showDialog(ex.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void showDialog(final String error) {
+        SwingUtilities.invokeLater(() -> {
+            NotifyDescriptor.Message message = new NotifyDescriptor.Message(error, NotifyDescriptor.WARNING_MESSAGE);
+            DialogDisplayer.getDefault().notify(message);
+        });
+    }
+
+    private static final class Item {
+
+        private final String projectName;
+        private final HeavyDirectory directory;
+
+        Item(String projectName, HeavyDirectory directory) {
+            this.projectName = projectName;
+            this.directory = directory;
+        }
+
+        @NbBundle.Messages({
+            "# {0} - project name",
+            "# {1} - directory path",
+            "# {2} - gitignore name",
+            "# {3} - size",
+            "# {4} - file count",
+            "AuditGitignoreAction.item={0}: {1} ({2}) {3}, {4} files"
+        })
+        @Override
+        public String toString() {
+            return Bundle.AuditGitignoreAction_item(
+                    projectName,
+                    directory.getPath(),
+                    directory.getGitignore(),
+                    formatSize(directory.getSize()),
+                    directory.getFileCount()
+            );
+        }
+
+        private static String formatSize(long size) {
+            if (size < 1024) {
+                return size + " B"; // NOI18N
+            }
+            int exponent = (int) (Math.log(size) / Math.log(1024));
+            return String.format("%.1f %sB", size / Math.pow(1024, exponent), "KMGTPE".charAt(exponent - 1)); // NOI18N
+        }
+    }
+}
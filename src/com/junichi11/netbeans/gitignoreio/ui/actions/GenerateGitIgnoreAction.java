@@ -15,18 +15,23 @@
  */
 package com.junichi11.netbeans.gitignoreio.ui.actions;
 
+import com.junichi11.netbeans.gitignoreio.client.GitignoreioClient;
+import com.junichi11.netbeans.gitignoreio.gitignore.GitignoreTemplateIndex;
 import com.junichi11.netbeans.gitignoreio.ui.GitignoreListPanel;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
-import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.SwingUtilities;
 import org.netbeans.api.project.Project;
 import org.netbeans.modules.csl.api.UiUtils;
@@ -42,6 +47,7 @@ import org.openide.filesystems.FileUtil;
 import org.openide.util.Exceptions;
 import org.openide.util.NbBundle;
 import org.openide.util.NbBundle.Messages;
+import org.openide.util.RequestProcessor;
 
 @ActionID(
         category = "Versioning",
@@ -56,7 +62,8 @@ import org.openide.util.NbBundle.Messages;
 public final class GenerateGitIgnoreAction implements ActionListener {
 
     private static final String GITIGNORE_NAME = ".gitignore"; // NOI18N
-    private static final String UTF8 = "UTF-8"; // NOI18N
+    private static final Logger LOGGER = Logger.getLogger(GenerateGitIgnoreAction.class.getName());
+    private static final RequestProcessor RP = new RequestProcessor(GenerateGitIgnoreAction.class);
     private final Project context;
     private File gitignoreFile;
 
@@ -75,87 +82,192 @@ public final class GenerateGitIgnoreAction implements ActionListener {
         gitignoreFile = new File(FileUtil.toFile(projectDirectory), GITIGNORE_NAME);
         final boolean isEnabled = gitignoreFile.exists();
         final String projectDirectoryPath = FileUtil.toFile(projectDirectory).getAbsolutePath();
-        SwingUtilities.invokeLater(() -> {
-            GitignoreListPanel panel = GitignoreListPanel.getDefault();
-            panel.setEnabledOverwrite(isEnabled);
-            panel.setEnabledPostscript(isEnabled);
-            panel.setFilePath(projectDirectoryPath);
-
-            DialogDescriptor descriptor;
-            try {
-                descriptor = panel.showDialog();
-                if (descriptor.getValue() == DialogDescriptor.OK_OPTION) {
-                    // get content
-                    String gitignoreContent = panel.getGitignoreContent();
-                    if (gitignoreContent == null) {
-                        String warning = Bundle.GenerateGitignoreAction_select_gitignore_list_message();
-                        showDialog(warning);
-                        return;
-                    }
-                    if (!panel.getFilePath().equals(projectDirectoryPath)) {
-                        gitignoreFile = new File(new File(panel.getFilePath()), GITIGNORE_NAME);
-                    }
+        RP.post(() -> {
+            // the index is built in the background
+            GitignoreTemplateIndex index = GitignoreTemplateIndex.forDirectory(projectDirectory);
+            index.waitForScan();
+            final List<String> suggestedGitignores = isEnabled ? index.getMissingGitignores() : index.getSuggestedGitignores();
+            SwingUtilities.invokeLater(() -> {
+                GitignoreListPanel panel = GitignoreListPanel.getDefault();
+                panel.setEnabledOverwrite(isEnabled);
+                panel.setEnabledPostscript(isEnabled);
+                panel.setFilePath(projectDirectoryPath);
+                panel.setSuggestedGitignores(suggestedGitignores);
 
-                    // create file
-                    if (!createFile() && panel.isNormal()) {
-                        // show dialog
-                        String error = Bundle.GenerateGitignoreAction_new_file_error_message();
-                        showDialog(error);
-                    } else {
-                        // write
-                        writeFile(panel, gitignoreContent);
-                    }
-
-                    // open file
-                    FileObject gitignore = FileUtil.toFileObject(gitignoreFile);
-                    if (gitignore != null) {
-                        UiUtils.open(gitignore, 0);
+                DialogDescriptor descriptor;
+                try {
+                    descriptor = panel.showDialog();
+                    if (descriptor.getValue() == DialogDescriptor.OK_OPTION) {
+                        String gitignores = panel.getGitignores();
+                        if (gitignores.isEmpty()) {
+                            String warning = Bundle.GenerateGitignoreAction_select_gitignore_list_message();
+                            showDialog(warning);
+                            return;
+                        }
+                        if (!panel.getFilePath().equals(projectDirectoryPath)) {
+                            gitignoreFile = new File(new File(panel.getFilePath()), GITIGNORE_NAME);
+                        }
+                        // don't touch the panel outside the EDT
+                        final File targetFile = gitignoreFile;
+                        final boolean isNormal = panel.isNormal();
+                        final boolean isPostscript = panel.isPostscript();
+                        RP.post(() -> generate(targetFile, gitignores, isNormal, isPostscript));
                     }
+                } catch (IOException ex) {
+                    showDialog(ex.getMessage());
                 }
-            } catch (MalformedURLException ex) {
-                Exceptions.printStackTrace(ex);
-            } catch (IOException ex) {
-                showDialog(ex.getMessage());
-            }
+            });
         });
     }
 
-    private boolean createFile() throws IOException {
-        return gitignoreFile.createNewFile();
+    private void generate(File targetFile, String gitignores, boolean isNormal, boolean isPostscript) {
+        try {
+            if (!generate(GitignoreioClient.getInstance(), targetFile, gitignores, isNormal, isPostscript)) {
+                // show dialog
+                String error = Bundle.GenerateGitignoreAction_new_file_error_message();
+                showDialog(error);
+                return;
+            }
+        } catch (MalformedURLException ex) {
+            Exceptions.printStackTrace(ex);
+            return;
+        } catch (IOException ex) {
+            showDialog(ex.getMessage());
+            return;
+        }
+
+        // open file
+        FileObject gitignore = FileUtil.toFileObject(targetFile);
+        if (gitignore != null) {
+            SwingUtilities.invokeLater(() -> UiUtils.open(gitignore, 0));
+        }
+    }
+
+    /**
+     * Download the gitignore content with the client and write it to the
+     * .gitignore file.
+     *
+     * @param client the client
+     * @param targetFile the .gitignore file
+     * @param gitignores comma separated gitignores e.g. "java,maven"
+     * @param isNormal {@code true} if only a new file is written
+     * @param isPostscript {@code true} if the content is appended to the
+     * existing file, otherwise {@code false}
+     * @return {@code true} if the file is written, {@code false} if the file
+     * already exists in the normal mode
+     * @throws IOException if the content can't be downloaded, the existing
+     * file is not changed
+     */
+    static boolean generate(GitignoreioClient client, File targetFile, String gitignores, boolean isNormal, boolean isPostscript) throws IOException {
+        if (isNormal && targetFile.exists()) {
+            return false;
+        }
+        // get content
+        File gitignoreContent = downloadGitignores(client, gitignores, isPostscript);
+        try {
+            // create file
+            if (!targetFile.createNewFile() && isNormal) {
+                return false;
+            }
+            // write
+            writeFile(targetFile, gitignoreContent, isPostscript);
+        } finally {
+            deleteFile(gitignoreContent);
+        }
+        return true;
+    }
+
+    /**
+     * Download the gitignore content to a temporary file. The response is
+     * streamed to the file, so the existing .gitignore is not changed if the
+     * connection fails.
+     *
+     * @param gitignores comma separated gitignores e.g. "java,maven"
+     * @param isPostscript {@code true} if the content is appended to the
+     * existing file (the header is removed), otherwise {@code false}
+     * @return the temporary file, the caller must delete it
+     * @throws IOException
+     */
+    static File downloadGitignores(String gitignores, boolean isPostscript) throws IOException {
+        return downloadGitignores(GitignoreioClient.getInstance(), gitignores, isPostscript);
     }
 
-    private void writeFile(GitignoreListPanel panel, String gitignoreContent) {
+    /**
+     * Download the gitignore content to a temporary file with the client.
+     *
+     * @param client the client
+     * @param gitignores comma separated gitignores e.g. "java,maven"
+     * @param isPostscript {@code true} if the header is removed, otherwise
+     * {@code false}
+     * @return the temporary file, the caller must delete it
+     * @throws IOException
+     */
+    static File downloadGitignores(GitignoreioClient client, String gitignores, boolean isPostscript) throws IOException {
+        File gitignoreContent = File.createTempFile("gitignore", ".tmp"); // NOI18N
+        try (Writer writer = Files.newBufferedWriter(gitignoreContent.toPath(), StandardCharsets.UTF_8)) {
+            client.writeGitignoreContent(gitignores, writer, isPostscript);
+        } catch (IOException ex) {
+            deleteFile(gitignoreContent);
+            throw ex;
+        }
+        return gitignoreContent;
+    }
+
+    static void writeFile(File gitignoreFile, File gitignoreContent, boolean isPostscript) {
         if (!gitignoreFile.exists()) {
             return;
         }
 
-        PrintWriter pw;
-        try {
-            if (panel.isNormal() || panel.isOverwrite()) {
-                pw = new PrintWriter(new OutputStreamWriter(new FileOutputStream(gitignoreFile), UTF8), true); // NOI18N
-            } else if (panel.isPostscript()) {
-                pw = new PrintWriter(new FileWriter(gitignoreFile, true));
-            } else {
-                return;
-            }
-            try {
-                if (panel.isNormal() || panel.isOverwrite()) {
-                    pw.print(gitignoreContent);
-                } else if (panel.isPostscript()) {
-                    // # Created by https://www.gitignore.io
-                    gitignoreContent = gitignoreContent.replace("# Created by https://www.gitignore.io\n", ""); // NOI18N
-                    pw.write(gitignoreContent);
+        // the last byte is read in postscript mode, APPEND can't be used with READ
+        StandardOpenOption mode = isPostscript ? StandardOpenOption.READ : StandardOpenOption.TRUNCATE_EXISTING;
+        try (FileChannel source = FileChannel.open(gitignoreContent.toPath(), StandardOpenOption.READ);
+                FileChannel target = FileChannel.open(gitignoreFile.toPath(), StandardOpenOption.WRITE, mode)) {
+            if (isPostscript) {
+                long end = target.size();
+                target.position(end);
+                // don't join the last rule and the first appended line
+                if (end > 0 && !endsWithLineSeparator(target, end)) {
+                    target.write(ByteBuffer.wrap(new byte[]{'\n'}));
                 }
-            } finally {
-                pw.close();
             }
-        } catch (FileNotFoundException ex) {
-            Exceptions.printStackTrace(ex);
-        } catch (UnsupportedEncodingException ex) {
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                position += source.transferTo(position, size - position, target);
+            }
+        } catch (IOException ex) {
             Exceptions.printStackTrace(ex);
+        }
+        // notify listeners (e.g. the template index) of the change
+        FileUtil.refreshFor(gitignoreFile);
+    }
+
+    private static boolean endsWithLineSeparator(FileChannel channel, long size) throws IOException {
+        ByteBuffer lastByte = ByteBuffer.allocate(1);
+        channel.read(lastByte, size - 1);
+        byte b = lastByte.get(0);
+        return b == '\n' || b == '\r';
+    }
+
+    static void writeFile(File gitignoreFile, String gitignoreContent) {
+        if (!gitignoreFile.exists()) {
+            return;
+        }
+
+        try (Writer writer = Files.newBufferedWriter(gitignoreFile.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(gitignoreContent);
         } catch (IOException ex) {
             Exceptions.printStackTrace(ex);
         }
+        FileUtil.refreshFor(gitignoreFile);
+    }
+
+    static void deleteFile(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, ex.getMessage());
+        }
     }
 
     private void showDialog(final String error) {
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.ui.actions;
+
+import com.junichi11.netbeans.gitignoreio.gitignore.RedundantRule;
+import com.junichi11.netbeans.gitignoreio.gitignore.RedundantRuleAnalyzer;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
+import java.util.List;
+import javax.swing.DefaultListModel;
+import javax.swing.JList;
+import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
+import org.netbeans.api.project.Project;
+import org.netbeans.modules.csl.api.UiUtils;
+import org.openide.DialogDescriptor;
+import org.openide.DialogDisplayer;
+import org.openide.NotifyDescriptor;
+import org.openide.awt.ActionID;
+import org.openide.awt.ActionReference;
+import org.openide.awt.ActionReferences;
+import org.openide.awt.ActionRegistration;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.NbBundle;
+import org.openide.util.NbBundle.Messages;
+import org.openide.util.RequestProcessor;
+
+@ActionID(
+        category = "Versioning",
+        id = "com.junichi11.netbeans.gitignoreio.ui.actions.MinimizeGitignoreAction")
+@ActionRegistration(
+        displayName = "#CTL_MinimizeGitignoreAction")
+@ActionReferences({
+    @ActionReference(path = "Menu/File", position = 2570),
+    @ActionReference(path = "Projects/Actions", position = 2560)
+})
+@Messages("CTL_MinimizeGitignoreAction=Remove redundant gitignore rules")
+public final class MinimizeGitignoreAction implements ActionListener {
+
+    private static final String GITIGNORE_NAME = ".gitignore"; // NOI18N
+    private static final RequestProcessor RP = new RequestProcessor(MinimizeGitignoreAction.class);
+    private final Project context;
+
+    public MinimizeGitignoreAction(Project context) {
+        this.context = context;
+    }
+
+    @NbBundle.Messages({
+        "MinimizeGitignoreAction.no.file.message=.gitignore doesn't exist.",
+        "MinimizeGitignoreAction.no.redundant.rules.message=There are no redundant rules.",
+        "# {0} - path",
+        "MinimizeGitignoreAction.not.verified.message=Redundant rules were found but the result ignores \"{0}\" differently. The file is not changed.",
+        "# {0} - path",
+        "MinimizeGitignoreAction.not.utf8.message={0} is not encoded in UTF-8. The file is not changed."
+    })
+    @Override
+    public void actionPerformed(ActionEvent ev) {
+        final File projectDirectory = FileUtil.toFile(context.getProjectDirectory());
+        if (projectDirectory == null) {
+            return;
+        }
+        final File gitignoreFile = new File(projectDirectory, GITIGNORE_NAME);
+        if (!gitignoreFile.isFile()) {
+            showDialog(Bundle.MinimizeGitignoreAction_no_file_message(), NotifyDescriptor.WARNING_MESSAGE);
+            return;
+        }
+        RP.post(() -> {
+            RedundantRuleAnalyzer.Result result;
+            try {
+                result = new RedundantRuleAnalyzer(projectDirectory).analyze();
+            } catch (CharacterCodingException ex) {
+                showDialog(Bundle.MinimizeGitignoreAction_not_utf8_message(gitignoreFile.getAbsolutePath()), NotifyDescriptor.WARNING_MESSAGE);
+                return;
+            } catch (IOException ex) {
+                showDialog(ex.getMessage(), NotifyDescriptor.WARNING_MESSAGE);
+                return;
+            }
+            if (result.getRedundantRules().isEmpty()) {
+                showDialog(Bundle.MinimizeGitignoreAction_no_redundant_rules_message(), NotifyDescriptor.INFORMATION_MESSAGE);
+                return;
+            }
+            if (!result.isVerified()) {
+                showDialog(Bundle.MinimizeGitignoreAction_not_verified_message(result.getMismatchedPath()), NotifyDescriptor.WARNING_MESSAGE);
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (confirm(result.getRedundantRules())) {
+                    RP.post(() -> {
+                        // the file is refreshed after writing
+                        GenerateGitIgnoreAction.writeFile(gitignoreFile, result.getMinimizedContent());
+                        FileObject gitignore = FileUtil.toFileObject(gitignoreFile);
+                        if (gitignore != null) {
+                            SwingUtilities.invokeLater(() -> UiUtils.open(gitignore, 0));
+                        }
+                    });
+                }
+            });
+        });
+    }
+
+    @NbBundle.Messages({
+        "MinimizeGitignoreAction.dialog.title=Redundant rules (these lines will be removed)",
+        "# {0} - line number",
+        "# {1} - rule",
+        "# {2} - reason",
+        "MinimizeGitignoreAction.rule={0}: {1} ({2})",
+        "MinimizeGitignoreAction.reason.duplicate=duplicated",
+        "# {0} - rule",
+        "MinimizeGitignoreAction.reason.subsumed=covered by {0}",
+        "MinimizeGitignoreAction.reason.dead.negation=negation which never works"
+    })
+    private boolean confirm(List<RedundantRule> redundantRules) {
+        DefaultListModel<String> model = new DefaultListModel<>();
+        redundantRules.forEach((redundantRule) -> {
+            String reason;
+            switch (redundantRule.getReason()) {
+                case DUPLICATE:
+                    reason = Bundle.MinimizeGitignoreAction_reason_duplicate();
+                    break;
+                case SUBSUMED:
+                    reason = Bundle.MinimizeGitignoreAction_reason_subsumed(redundantRule.getCause().getLine());
+                    break;
+                default:
+                    reason = Bundle.MinimizeGitignoreAction_reason_dead_negation();
+                    break;
+            }
+            model.addElement(Bundle.MinimizeGitignoreAction_rule(
+                    redundantRule.getRule().getLineNumber() + 1,
+                    redundantRule.getRule().getLine(),
+                    reason
+            ));
+        });
+        JList<String> list = new JList<>(model);
+        list.setVisibleRowCount(Math.min(redundantRules.size(), 15));
+        DialogDescriptor descriptor = new DialogDescriptor(new JScrollPane(list), Bundle.MinimizeGitignoreAction_dialog_title());
+        return DialogDisplayer.getDefault().notify(descriptor) == DialogDescriptor.OK_OPTION;
+    }
+
+    private void showDialog(final String message, final int messageType) {
+        SwingUtilities.invokeLater(() -> {
+            NotifyDescriptor.Message descriptor = new NotifyDescriptor.Message(message, messageType);
+            DialogDisplayer.getDefault().notify(descriptor);
+        });
+    }
+}
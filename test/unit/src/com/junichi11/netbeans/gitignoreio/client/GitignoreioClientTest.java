@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.client;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author junichi11
+ */
+public class GitignoreioClientTest {
+
+    private static final int TIMEOUT = 2000;
+    private static GitignoreioTestServer server;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        server = GitignoreioTestServer.start();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        server.close();
+    }
+
+    @After
+    public void tearDown() {
+        server.reset();
+    }
+
+    @Test
+    public void testReadAvailableGitignores() throws IOException {
+        List<String> gitignores = new ArrayList<>();
+        server.createClient(TIMEOUT).readAvailableGitignores(GitignoreioClient.FORMAT_LINES, gitignores::add);
+        List<String> expected = Arrays.asList(GitignoreioTestServer.getContent(GitignoreioTestServer.LIST_PATH).split("\n"));
+        assertEquals(expected, gitignores);
+        assertEquals(1, server.getRequestCount(GitignoreioTestServer.LIST_PATH));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testReadAvailableGitignoresWithLatency() throws IOException {
+        server.setLatency(300);
+        List<String> gitignores = new ArrayList<>();
+        long start = System.currentTimeMillis();
+        server.createClient(TIMEOUT).readAvailableGitignores(GitignoreioClient.FORMAT_LINES, gitignores::add);
+        long elapsed = System.currentTimeMillis() - start;
+        assertFalse(gitignores.isEmpty());
+        assertTrue("elapsed: " + elapsed, elapsed >= 300);
+        assertTrue("elapsed: " + elapsed, elapsed < 300 + 1000);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testReadAvailableGitignoresTimeout() throws IOException {
+        server.setLatency(3000);
+        long start = System.currentTimeMillis();
+        try {
+            server.createClient(200).readAvailableGitignores(GitignoreioClient.FORMAT_LINES, (gitignore) -> {
+            });
+            fail();
+        } catch (SocketTimeoutException ex) {
+            // expected
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        // the dialog must not wait for a slow server
+        assertTrue("elapsed: " + elapsed, elapsed < 1000);
+    }
+
+    @Test
+    public void testReadAvailableGitignoresFailure() throws IOException {
+        server.failNextRequests(1);
+        GitignoreioClient client = server.createClient(TIMEOUT);
+        try {
+            client.readAvailableGitignores(GitignoreioClient.FORMAT_LINES, (gitignore) -> {
+            });
+            fail();
+        } catch (IOException ex) {
+            // expected
+        }
+        // retry
+        List<String> gitignores = new ArrayList<>();
+        client.readAvailableGitignores(GitignoreioClient.FORMAT_LINES, gitignores::add);
+        assertFalse(gitignores.isEmpty());
+        assertEquals(2, server.getRequestCount(GitignoreioTestServer.LIST_PATH));
+    }
+
+    @Test
+    public void testWriteGitignoreContent() throws IOException {
+        StringWriter writer = new StringWriter();
+        server.createClient(TIMEOUT).writeGitignoreContent("java,maven", writer, false);
+        assertEquals(GitignoreioTestServer.getContent("/api/java,maven"), writer.toString());
+        assertEquals(1, server.getRequestCount("/api/java,maven"));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testWriteGitignoreContentIgnoreHeader() throws IOException {
+        StringWriter writer = new StringWriter();
+        server.createClient(TIMEOUT).writeGitignoreContent("node", writer, true);
+        String content = GitignoreioTestServer.getContent("/api/node");
+        assertEquals(content.substring(content.indexOf('\n') + 1), writer.toString());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testWriteGitignoreContentStreaming() throws IOException {
+        // about 2 seconds for the whole body
+        String content = GitignoreioTestServer.getContent("/api/java,node");
+        server.setBandwidth(content.length() / 2);
+        final long start = System.currentTimeMillis();
+        final long[] firstWrite = new long[1];
+        Writer writer = new StringWriter() {
+            @Override
+            public void write(String str) {
+                if (firstWrite[0] == 0) {
+                    firstWrite[0] = System.currentTimeMillis();
+                }
+                super.write(str);
+            }
+        };
+        server.createClient(TIMEOUT).writeGitignoreContent("java,node", writer, false);
+        long elapsed = System.currentTimeMillis() - start;
+        assertEquals(content, writer.toString());
+        assertTrue("elapsed: " + elapsed, elapsed >= 1500);
+        assertTrue("elapsed: " + elapsed, elapsed < 2000 + 1500);
+        // lines are written before the whole body is received
+        assertTrue("first write: " + (firstWrite[0] - start), firstWrite[0] - start < 1000);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testWriteGitignoreContentBrokenResponse() throws IOException {
+        server.breakNextResponses(1);
+        try {
+            server.createClient(TIMEOUT).writeGitignoreContent("java,maven", new StringWriter(), false);
+            fail();
+        } catch (IOException ex) {
+            // expected
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testWriteGitignoreContentUndefined() throws IOException {
+        StringWriter writer = new StringWriter();
+        server.createClient(TIMEOUT).writeGitignoreContent("java,undefined", writer, false);
+        assertTrue(writer.toString().startsWith("#!! ERROR: undefined is undefined."));
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process gitignore.io server for tests. Responses are built from the
+ * recorded template corpus (the corpus directory of this package) in the same
+ * format as gitignore.io. Latency, a bandwidth cap and failures can be
+ * injected.
+ *
+ * @author junichi11
+ */
+public final class GitignoreioTestServer implements Closeable {
+
+    public static final String LIST_PATH = "/api/list"; // NOI18N
+    private static final String API_PATH = "/api/"; // NOI18N
+    private static final String CORPUS = "corpus/"; // NOI18N
+    private static final String SITE = "https://www.gitignore.io"; // NOI18N
+    // the size of chunks written with the bandwidth cap
+    private static final int CHUNK_SIZE = 256;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ConcurrentHashMap<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private volatile long latency;
+    private volatile int bandwidth;
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger brokenResponses = new AtomicInteger();
+
+    private GitignoreioTestServer(HttpServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Start a server on a free port of the loopback address.
+     *
+     * @return the started server
+     * @throws IOException
+     */
+    public static GitignoreioTestServer start() throws IOException {
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        GitignoreioTestServer testServer = new GitignoreioTestServer(httpServer);
+        httpServer.createContext(API_PATH, testServer::handle);
+        httpServer.setExecutor(testServer.executor);
+        httpServer.start();
+        return testServer;
+    }
+
+    public String getApiUrl() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort() + API_PATH; // NOI18N
+    }
+
+    /**
+     * Create a client which connects to this server.
+     *
+     * @param timeout the connect and read timeout in milliseconds
+     * @return the client
+     */
+    public GitignoreioClient createClient(int timeout) {
+        return new GitignoreioClient(getApiUrl(), timeout);
+    }
+
+    /**
+     * Delay each response.
+     *
+     * @param latency the delay before the response headers in milliseconds
+     */
+    public void setLatency(long latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Cap the bandwidth of response bodies.
+     *
+     * @param bandwidth bytes per second, 0 is unlimited
+     */
+    public void setBandwidth(int bandwidth) {
+        this.bandwidth = bandwidth;
+    }
+
+    /**
+     * Respond to the next requests with 500 Internal Server Error.
+     *
+     * @param count the number of failed requests
+     */
+    public void failNextRequests(int count) {
+        failures.set(count);
+    }
+
+    /**
+     * Close the connection of the next responses in the middle of the body.
+     *
+     * @param count the number of broken responses
+     */
+    public void breakNextResponses(int count) {
+        brokenResponses.set(count);
+    }
+
+    /**
+     * Get the number of requests of the path (e.g. "/api/list",
+     * "/api/java,maven").
+     *
+     * @param path the path
+     * @return the number of requests
+     */
+    public int getRequestCount(String path) {
+        AtomicInteger count = requestCounts.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    public int getRequestCount() {
+        int count = 0;
+        for (AtomicInteger c : requestCounts.values()) {
+            count += c.get();
+        }
+        return count;
+    }
+
+    /**
+     * Clear injected conditions and request counts.
+     */
+    public void reset() {
+        latency = 0;
+        bandwidth = 0;
+        failures.set(0);
+        brokenResponses.set(0);
+        requestCounts.clear();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Get the response body of the path.
+     *
+     * @param path the path e.g. "/api/java,maven"
+     * @return the body
+     * @throws IOException
+     */
+    public static String getContent(String path) throws IOException {
+        if (path.equals(LIST_PATH)) {
+            return readCorpus("list"); // NOI18N
+        }
+        String gitignores = path.substring(API_PATH.length());
+        List<String> sections = new ArrayList<>();
+        for (String gitignore : gitignores.split(",")) { // NOI18N
+            String section = readCorpus(gitignore);
+            if (section == null) {
+                return "#!! ERROR: " + gitignore + " is undefined. Use list command to see defined gitignore types !!#\n"; // NOI18N
+            }
+            sections.add(section);
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Created by ").append(SITE).append(API_PATH).append(gitignores).append('\n'); // NOI18N
+        sb.append("# Edit at ").append(SITE).append("/?templates=").append(gitignores).append('\n'); // NOI18N
+        for (String section : sections) {
+            sb.append('\n').append(section);
+        }
+        sb.append('\n').append("# End of ").append(SITE).append(API_PATH).append(gitignores).append('\n'); // NOI18N
+        return sb.toString();
+    }
+
+    private static String readCorpus(String name) throws IOException {
+        try (InputStream inputStream = GitignoreioTestServer.class.getResourceAsStream(CORPUS + name)) {
+            if (inputStream == null) {
+                return null;
+            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, length);
+            }
+            return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            requestCounts.computeIfAbsent(path, (p) -> new AtomicInteger()).incrementAndGet();
+            sleep(latency);
+            if (decrement(failures)) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            byte[] body = getContent(path).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8"); // NOI18N
+            exchange.sendResponseHeaders(200, body.length);
+            int length = decrement(brokenResponses) ? body.length / 2 : body.length;
+            OutputStream outputStream = exchange.getResponseBody();
+            int chunkSize = bandwidth > 0 ? Math.min(CHUNK_SIZE, bandwidth) : length;
+            for (int offset = 0; offset < length; offset += chunkSize) {
+                int size = Math.min(chunkSize, length - offset);
+                outputStream.write(body, offset, size);
+                outputStream.flush();
+                if (bandwidth > 0) {
+                    sleep(size * 1000L / bandwidth);
+                }
+            }
+            if (length < body.length) {
+                // the client gets a premature EOF
+                throw new IOException("broken response"); // NOI18N
+            }
+        } catch (InterruptedIOException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static boolean decrement(AtomicInteger counter) {
+        return counter.getAndUpdate((count) -> count > 0 ? count - 1 : 0) > 0;
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            throw new InterruptedIOException();
+        }
+    }
+}
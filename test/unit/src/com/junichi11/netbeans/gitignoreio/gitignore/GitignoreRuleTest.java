@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.gitignore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author junichi11
+ */
+public class GitignoreRuleTest {
+
+    @Test
+    public void testParse() {
+        assertNull(GitignoreRule.parse(0, ""));
+        assertNull(GitignoreRule.parse(0, "   "));
+        assertNull(GitignoreRule.parse(0, "# comment"));
+        assertNull(GitignoreRule.parse(0, "/"));
+
+        GitignoreRule rule = GitignoreRule.parse(3, "!/build/  ");
+        assertEquals(3, rule.getLineNumber());
+        assertEquals("!/build/  ", rule.getLine());
+        assertEquals("build", rule.getPattern());
+        assertTrue(rule.isNegated());
+        assertTrue(rule.isDirectoryOnly());
+        assertTrue(rule.isAnchored());
+
+        rule = GitignoreRule.parse(0, "\\#file");
+        assertEquals("#file", rule.getPattern());
+        assertFalse(rule.isNegated());
+        assertFalse(rule.isAnchored());
+
+        rule = GitignoreRule.parse(0, "\\!file");
+        assertEquals("!file", rule.getPattern());
+        assertFalse(rule.isNegated());
+    }
+
+    @Test
+    public void testMatchesUnanchored() {
+        GitignoreRule rule = GitignoreRule.parse(0, "*.log");
+        assertTrue(rule.matches("debug.log", false));
+        assertTrue(rule.matches("a/b/debug.log", false));
+        assertTrue(rule.matches("logs.log", true));
+        assertFalse(rule.matches("debug.log.txt", false));
+        assertFalse(rule.matches("debug/log", false));
+    }
+
+    @Test
+    public void testMatchesAnchored() {
+        GitignoreRule rule = GitignoreRule.parse(0, "/target");
+        assertTrue(rule.matches("target", true));
+        assertFalse(rule.matches("a/target", true));
+
+        rule = GitignoreRule.parse(0, "doc/*.txt");
+        assertTrue(rule.matches("doc/a.txt", false));
+        assertFalse(rule.matches("doc/a/b.txt", false));
+        assertFalse(rule.matches("a/doc/a.txt", false));
+    }
+
+    @Test
+    public void testMatchesDirectoryOnly() {
+        GitignoreRule rule = GitignoreRule.parse(0, "build/");
+        assertTrue(rule.matches("build", true));
+        assertTrue(rule.matches("a/build", true));
+        assertFalse(rule.matches("build", false));
+    }
+
+    @Test
+    public void testMatchesDoubleAsterisk() {
+        GitignoreRule rule = GitignoreRule.parse(0, "**/foo");
+        assertTrue(rule.matches("foo", false));
+        assertTrue(rule.matches("a/b/foo", false));
+
+        rule = GitignoreRule.parse(0, "abc/**");
+        assertTrue(rule.matches("abc/x", false));
+        assertTrue(rule.matches("abc/x/y", false));
+        assertFalse(rule.matches("abc", true));
+
+        rule = GitignoreRule.parse(0, "a/**/b");
+        assertTrue(rule.matches("a/b", false));
+        assertTrue(rule.matches("a/x/y/b", false));
+        assertFalse(rule.matches("a/xb", false));
+    }
+
+    @Test
+    public void testMatchesWildcards() {
+        GitignoreRule rule = GitignoreRule.parse(0, "file?.txt");
+        assertTrue(rule.matches("file1.txt", false));
+        assertFalse(rule.matches("file10.txt", false));
+
+        rule = GitignoreRule.parse(0, "\\*.txt");
+        assertTrue(rule.matches("*.txt", false));
+        assertFalse(rule.matches("a.txt", false));
+
+        rule = GitignoreRule.parse(0, "a[");
+        assertTrue(rule.matches("a[", false));
+    }
+
+    @Test
+    public void testMatchesBracket() {
+        GitignoreRule rule = GitignoreRule.parse(0, "file[0-9].txt");
+        assertTrue(rule.matches("file1.txt", false));
+        assertFalse(rule.matches("filea.txt", false));
+
+        rule = GitignoreRule.parse(0, "file[!0-9].txt");
+        assertTrue(rule.matches("filea.txt", false));
+        assertFalse(rule.matches("file1.txt", false));
+
+        rule = GitignoreRule.parse(0, "a[^b]c");
+        assertTrue(rule.matches("axc", false));
+        assertFalse(rule.matches("abc", false));
+        // a bracket never matches a separator
+        assertFalse(rule.matches("a/c", false));
+
+        rule = GitignoreRule.parse(0, "[]]");
+        assertTrue(rule.matches("]", false));
+    }
+
+    @Test
+    public void testMatchesReversedRange() {
+        // matches nothing, must not throw PatternSyntaxException
+        GitignoreRule rule = GitignoreRule.parse(0, "[z-a]");
+        assertFalse(rule.matches("a", false));
+        assertFalse(rule.matches("z", false));
+        assertFalse(rule.matches("[z-a]", false));
+    }
+
+    @Test
+    public void testMatchesPosixClass() {
+        GitignoreRule rule = GitignoreRule.parse(0, "[[:digit:]]x");
+        assertTrue(rule.matches("1x", false));
+        assertFalse(rule.matches("ax", false));
+
+        rule = GitignoreRule.parse(0, "[[:alpha:][:digit:]_]");
+        assertTrue(rule.matches("a", false));
+        assertTrue(rule.matches("1", false));
+        assertTrue(rule.matches("_", false));
+        assertFalse(rule.matches("-", false));
+
+        // unknown classes match nothing
+        rule = GitignoreRule.parse(0, "[[:unknown:]]");
+        assertFalse(rule.matches("a", false));
+    }
+
+    @Test
+    public void testMatchesJavaOnlySyntax() {
+        // "&&" is not an intersection in gitignore
+        GitignoreRule rule = GitignoreRule.parse(0, "[a&&b]");
+        assertTrue(rule.matches("a", false));
+        assertTrue(rule.matches("&", false));
+        assertTrue(rule.matches("b", false));
+        assertFalse(rule.matches("c", false));
+
+        rule = GitignoreRule.parse(0, "[\\w]");
+        assertTrue(rule.matches("w", false));
+        assertFalse(rule.matches("x", false));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.gitignore;
+
+import java.util.Arrays;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author junichi11
+ */
+public class GitignoreRulesTest {
+
+    @Test
+    public void testIsIgnoredLastMatchingRuleWins() {
+        GitignoreRules rules = GitignoreRules.parse(Arrays.asList(
+                "*.log",
+                "!important.log"
+        ));
+        assertTrue(rules.isIgnored("debug.log", false));
+        assertFalse(rules.isIgnored("important.log", false));
+        assertFalse(rules.isIgnored("a/important.log", false));
+
+        rules = GitignoreRules.parse(Arrays.asList(
+                "!important.log",
+                "*.log"
+        ));
+        assertTrue(rules.isIgnored("important.log", false));
+    }
+
+    @Test
+    public void testIsIgnoredParentExcluded() {
+        // a file can't be re-included if a parent directory is excluded
+        GitignoreRules rules = GitignoreRules.parse(Arrays.asList(
+                "build/",
+                "!build/keep.txt"
+        ));
+        assertTrue(rules.isIgnored("build", true));
+        assertTrue(rules.isIgnored("build/keep.txt", false));
+        assertTrue(rules.isIgnored("build/a/b.txt", false));
+        assertFalse(rules.isIgnored("build", false));
+
+        rules = GitignoreRules.parse(Arrays.asList(
+                "build/*",
+                "!build/keep.txt"
+        ));
+        assertFalse(rules.isIgnored("build", true));
+        assertFalse(rules.isIgnored("build/keep.txt", false));
+        assertTrue(rules.isIgnored("build/other.txt", false));
+    }
+
+    @Test
+    public void testIsIgnoredWithoutRules() {
+        GitignoreRules rules = GitignoreRules.parse(Arrays.asList("# comment", ""));
+        assertTrue(rules.getRules().isEmpty());
+        assertFalse(rules.isIgnored("a", false));
+    }
+
+    @Test
+    public void testIsIgnoredInvalidPatterns() {
+        GitignoreRules rules = GitignoreRules.parse(Arrays.asList(
+                "[z-a]",
+                "[[:digit:]]x",
+                "[a&&b]"
+        ));
+        assertFalse(rules.isIgnored("c", false));
+        assertTrue(rules.isIgnored("1x", false));
+        assertTrue(rules.isIgnored("&", false));
+    }
+}
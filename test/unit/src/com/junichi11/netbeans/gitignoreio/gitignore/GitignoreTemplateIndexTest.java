@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.gitignore;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ *
+ * @author junichi11
+ */
+public class GitignoreTemplateIndexTest {
+
+    private static final List<String> SUGGESTED = Arrays.asList("maven", "netbeans", "node", "rust");
+
+    @Test
+    public void testGeneratedGitignore() {
+        Set<String> templates = new HashSet<>(Arrays.asList("maven", "netbeans"));
+        // the rules are not checked
+        GitignoreRules rules = GitignoreRules.parse(Arrays.asList("node_modules/"));
+        assertEquals(Arrays.asList("node", "rust"), GitignoreTemplateIndex.getMissingGitignores(SUGGESTED, templates, rules));
+    }
+
+    @Test
+    public void testHandWrittenGitignore() {
+        Set<String> templates = Collections.emptySet();
+        GitignoreRules rules = GitignoreRules.parse(Arrays.asList("/target/", "*.log"));
+        // netbeans has no heavy directory, rust also uses target
+        assertEquals(Arrays.asList("node"), GitignoreTemplateIndex.getMissingGitignores(SUGGESTED, templates, rules));
+
+        rules = GitignoreRules.parse(Arrays.asList("node_modules", "target/", "!target/"));
+        assertEquals(Arrays.asList("maven", "rust"), GitignoreTemplateIndex.getMissingGitignores(SUGGESTED, templates, rules));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.gitignore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assume.assumeTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author junichi11
+ */
+public class HeavyDirectoryAuditorTest {
+
+    private static final int FILE_COUNT = 150;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testNestedModuleIgnoredByParent() throws IOException {
+        File root = initRepository();
+        write(new File(root, ".gitignore"), "target/");
+        File module = new File(root, "mod");
+        write(new File(module, "pom.xml"), "<project/>");
+        createFiles(new File(module, "target"));
+        assertAudit(module);
+        assertAudit(root);
+        // the nested project is audited separately
+        assertAudit(root, Collections.singletonList(module));
+    }
+
+    @Test
+    public void testNestedGitignore() throws IOException {
+        File root = initRepository();
+        write(new File(root, "mod/.gitignore"), "node_modules/");
+        createFiles(new File(root, "mod/node_modules"));
+        createFiles(new File(root, "node_modules"));
+        assertAudit(root, "node_modules (node)");
+    }
+
+    @Test
+    public void testInfoExclude() throws IOException {
+        File root = initRepository();
+        write(new File(root, ".git/info/exclude"), "node_modules/");
+        createFiles(new File(root, "node_modules"));
+        createFiles(new File(root, "vendor"));
+        assertAudit(root, "vendor (composer)");
+    }
+
+    @Test
+    public void testTrackedDirectory() throws IOException {
+        File root = initRepository();
+        createFiles(new File(root, "vendor"));
+        createFiles(new File(root, "node_modules"));
+        assertNotNull(Git.run(root, "add", "vendor")); // NOI18N
+        assertAudit(root, "node_modules (node)");
+    }
+
+    @Test
+    public void testSmallDirectory() throws IOException {
+        File root = initRepository();
+        new File(root, "target").mkdirs();
+        write(new File(root, "node_modules/a.js"), "");
+        assertAudit(root);
+    }
+
+    @Test
+    public void testOutsideRepository() throws IOException {
+        File root = temporaryFolder.getRoot();
+        assumeTrue(Git.run(root, "rev-parse", "--git-dir") == null); // NOI18N
+        write(new File(root, ".gitignore"), "target/");
+        createFiles(new File(root, "target"));
+        createFiles(new File(root, "a/node_modules"));
+        assertAudit(root, "a/node_modules (node)");
+    }
+
+    private File initRepository() {
+        File root = temporaryFolder.getRoot();
+        assumeTrue("git is not available", Git.run(root, "--version") != null); // NOI18N
+        assertNotNull(Git.run(root, "init", "-q")); // NOI18N
+        return root;
+    }
+
+    private static void createFiles(File directory) throws IOException {
+        directory.mkdirs();
+        for (int i = 0; i < FILE_COUNT; i++) {
+            new File(directory, "file" + i).createNewFile();
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertAudit(File root, String... expected) throws IOException {
+        assertAudit(root, Collections.<File>emptyList(), expected);
+    }
+
+    private static void assertAudit(File root, List<File> excludedDirectories, String... expected) throws IOException {
+        List<String> actual = new ArrayList<>();
+        for (HeavyDirectory directory : new HeavyDirectoryAuditor(root, excludedDirectories).audit()) {
+            actual.add(directory.getPath() + " (" + directory.getGitignore() + ")"); // NOI18N
+        }
+        assertEquals(Arrays.asList(expected), actual);
+    }
+}
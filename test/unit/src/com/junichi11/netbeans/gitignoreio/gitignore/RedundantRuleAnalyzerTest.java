@@ -0,0 +1,233 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.gitignore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author junichi11
+ */
+public class RedundantRuleAnalyzerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testDuplicate() throws IOException {
+        RedundantRuleAnalyzer.Result result = analyze(
+                "*.class",
+                "# comment",
+                "*.class"
+        );
+        assertRedundantRules(result, "*.class (DUPLICATE)");
+        assertEquals(Arrays.asList("# comment", "*.class"), result.getMinimizedLines());
+        assertTrue(result.isVerified());
+    }
+
+    @Test
+    public void testSubsumed() throws IOException {
+        RedundantRuleAnalyzer.Result result = analyze(
+                "*.log",
+                "debug.log",
+                "logs/*.log"
+        );
+        assertRedundantRules(result, "debug.log (SUBSUMED)", "logs/*.log (SUBSUMED)");
+        assertEquals(Arrays.asList("*.log"), result.getMinimizedLines());
+    }
+
+    @Test
+    public void testSubsumedByLaterRule() throws IOException {
+        assumeFalse(RedundantRuleAnalyzer.hasExternalExcludes(temporaryFolder.getRoot()));
+        RedundantRuleAnalyzer.Result result = analyze(
+                "debug.log",
+                "/target/",
+                "!keep.txt",
+                "*.log",
+                "target/"
+        );
+        assertRedundantRules(result, "debug.log (SUBSUMED)", "/target/ (SUBSUMED)", "!keep.txt (DEAD_NEGATION)");
+        assertEquals(Arrays.asList("*.log", "target/"), result.getMinimizedLines());
+    }
+
+    @Test
+    public void testSubsumedWithNegation() throws IOException {
+        // "important.log" is the last matching rule instead of "!important.log"
+        RedundantRuleAnalyzer.Result result = analyze(
+                "*.log",
+                "!important.log",
+                "important.log"
+        );
+        assertRedundantRules(result, "!important.log (SUBSUMED)", "important.log (SUBSUMED)");
+
+        // "!debug*.log" re-includes paths which "debug1.log" matches
+        result = analyze(
+                "*.log",
+                "!debug*.log",
+                "debug1.log"
+        );
+        assertRedundantRules(result);
+    }
+
+    @Test
+    public void testParentExcluded() throws IOException {
+        RedundantRuleAnalyzer.Result result = analyze(
+                "build/",
+                "/build/classes/",
+                "build/generated/*.java"
+        );
+        assertRedundantRules(result, "/build/classes/ (SUBSUMED)", "build/generated/*.java (SUBSUMED)");
+
+        // the negation may re-include children of build/*
+        result = analyze(
+                "build/*",
+                "!build/keep/",
+                "build/keep/a.txt"
+        );
+        assertRedundantRules(result);
+    }
+
+    @Test
+    public void testDeadNegation() throws IOException {
+        assumeFalse(RedundantRuleAnalyzer.hasExternalExcludes(temporaryFolder.getRoot()));
+        RedundantRuleAnalyzer.Result result = analyze(
+                "*.class",
+                "!Main.java",
+                "!Main.class"
+        );
+        assertRedundantRules(result, "!Main.java (DEAD_NEGATION)");
+        assertEquals(Arrays.asList("*.class", "!Main.class"), result.getMinimizedLines());
+    }
+
+    @Test
+    public void testNegationOfParentGitignore() throws IOException {
+        File root = initRepository();
+        write(new File(root, ".gitignore"), "*.log\n");
+        File module = new File(root, "mod");
+        write(new File(module, ".gitignore"), "!keep.log\n");
+        assertTrue(RedundantRuleAnalyzer.hasExternalExcludes(module));
+        RedundantRuleAnalyzer.Result result = new RedundantRuleAnalyzer(module).analyze();
+        assertRedundantRules(result);
+        assertEquals(Arrays.asList("!keep.log"), result.getMinimizedLines());
+    }
+
+    @Test
+    public void testNegationOfInfoExclude() throws IOException {
+        File root = initRepository();
+        write(new File(root, ".git/info/exclude"), "*.log\n");
+        RedundantRuleAnalyzer.Result result = analyze(
+                "!keep.log",
+                "!keep.log"
+        );
+        assertRedundantRules(result, "!keep.log (DUPLICATE)");
+    }
+
+    @Test
+    public void testInvalidPatterns() throws IOException {
+        RedundantRuleAnalyzer.Result result = analyze(
+                "[z-a]",
+                "[[:digit:]]x",
+                "[a&&b]",
+                "[a&&b]"
+        );
+        assertRedundantRules(result, "[a&&b] (DUPLICATE)");
+        assertTrue(result.isVerified());
+    }
+
+    @Test
+    public void testVerify() throws IOException {
+        File root = temporaryFolder.getRoot();
+        new File(root, "logs/old").mkdirs();
+        new File(root, "logs/old/debug.log").createNewFile();
+        new File(root, "src").mkdirs();
+        new File(root, "src/Main.java").createNewFile();
+        RedundantRuleAnalyzer.Result result = analyze(
+                "logs/",
+                "*.log",
+                "/logs/old/"
+        );
+        assertRedundantRules(result, "/logs/old/ (SUBSUMED)");
+        assertTrue(result.isVerified());
+    }
+
+    @Test
+    public void testNoGitignore() throws IOException {
+        RedundantRuleAnalyzer.Result result = new RedundantRuleAnalyzer(temporaryFolder.getRoot()).analyze();
+        assertRedundantRules(result);
+        assertTrue(result.getMinimizedLines().isEmpty());
+    }
+
+    @Test
+    public void testLineSeparator() throws IOException {
+        File gitignore = new File(temporaryFolder.getRoot(), ".gitignore");
+        Files.write(gitignore.toPath(), "*.log\r\n# comment\r\n*.log\r\n".getBytes(StandardCharsets.UTF_8));
+        RedundantRuleAnalyzer.Result result = new RedundantRuleAnalyzer(temporaryFolder.getRoot()).analyze();
+        assertEquals("# comment\r\n*.log\r\n", result.getMinimizedContent());
+
+        Files.write(gitignore.toPath(), "*.log\n*.log".getBytes(StandardCharsets.UTF_8));
+        result = new RedundantRuleAnalyzer(temporaryFolder.getRoot()).analyze();
+        assertEquals("*.log", result.getMinimizedContent());
+    }
+
+    @Test(expected = CharacterCodingException.class)
+    public void testMalformedInput() throws IOException {
+        File gitignore = new File(temporaryFolder.getRoot(), ".gitignore");
+        // "caf\u00e9" in ISO-8859-1
+        Files.write(gitignore.toPath(), new byte[]{'c', 'a', 'f', (byte) 0xe9, '\n'});
+        new RedundantRuleAnalyzer(temporaryFolder.getRoot()).analyze();
+    }
+
+    private File initRepository() {
+        File root = temporaryFolder.getRoot();
+        assumeTrue("git is not available", Git.run(root, "--version") != null); // NOI18N
+        assertNotNull(Git.run(root, "init", "-q")); // NOI18N
+        return root;
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private RedundantRuleAnalyzer.Result analyze(String... lines) throws IOException {
+        File root = temporaryFolder.getRoot();
+        Files.write(new File(root, ".gitignore").toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return new RedundantRuleAnalyzer(root).analyze();
+    }
+
+    private static void assertRedundantRules(RedundantRuleAnalyzer.Result result, String... expected) {
+        List<String> actual = new ArrayList<>();
+        result.getRedundantRules().forEach((redundantRule) -> {
+            actual.add(redundantRule.toString());
+        });
+        assertEquals(Arrays.asList(expected), actual);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.ui;
+
+import com.junichi11.netbeans.gitignoreio.client.GitignoreioTestServer;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.SwingUtilities;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author junichi11
+ */
+public class GitignoreListPanelTest {
+
+    private static GitignoreioTestServer server;
+    private GitignoreListPanel panel;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        server = GitignoreioTestServer.start();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        server.close();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server.setLatency(100);
+        SwingUtilities.invokeAndWait(() -> panel = new GitignoreListPanel(server.createClient(2000)));
+    }
+
+    @After
+    public void tearDown() {
+        server.reset();
+    }
+
+    @Test
+    public void testLoadOnce() throws Exception {
+        open();
+        List<String> items = panel.getAvailableListItems();
+        assertTrue(items.contains("java"));
+        assertEquals("1c", items.get(0));
+        assertEquals("yarn", items.get(items.size() - 1));
+
+        // the dialog is opened again
+        open();
+        assertEquals(items, panel.getAvailableListItems());
+        assertEquals(1, server.getRequestCount(GitignoreioTestServer.LIST_PATH));
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        open();
+        type("gra");
+        assertEquals(Arrays.asList("gradle", "grails"), panel.getAvailableListItems());
+        setFilter("java  maven");
+        assertEquals(Arrays.asList("java", "maven"), panel.getAvailableListItems());
+        setFilter("unknown");
+        assertEquals(Collections.emptyList(), panel.getAvailableListItems());
+        // the list is not requested while the filter is typed
+        assertEquals(1, server.getRequestCount(GitignoreioTestServer.LIST_PATH));
+    }
+
+    @Test
+    public void testLoadFailure() throws Exception {
+        server.failNextRequests(1);
+        open();
+        assertEquals(Collections.emptyList(), panel.getAvailableListItems());
+        type("java");
+        panel.waitForAvailableGitignores();
+        assertEquals(1, server.getRequestCount(GitignoreioTestServer.LIST_PATH));
+
+        // retry when the dialog is opened again
+        open();
+        assertEquals(Arrays.asList("java"), panel.getAvailableListItems());
+        assertEquals(2, server.getRequestCount(GitignoreioTestServer.LIST_PATH));
+    }
+
+    @Test
+    public void testBrokenResponse() throws Exception {
+        server.breakNextResponses(1);
+        open();
+        // a partial list is not shown
+        assertEquals(Collections.emptyList(), panel.getAvailableListItems());
+        type("a");
+        assertEquals(Collections.emptyList(), panel.getAvailableListItems());
+
+        open();
+        assertTrue(panel.getAvailableListItems().contains("java"));
+        assertEquals(2, server.getRequestCount(GitignoreioTestServer.LIST_PATH));
+    }
+
+    private void open() throws InterruptedException, InvocationTargetException {
+        SwingUtilities.invokeAndWait(panel::prepare);
+        panel.waitForAvailableGitignores();
+    }
+
+    // one key at a time
+    private void type(String filter) throws InterruptedException, InvocationTargetException {
+        for (int i = 1; i <= filter.length(); i++) {
+            setFilter(filter.substring(0, i));
+        }
+    }
+
+    private void setFilter(String filter) throws InterruptedException, InvocationTargetException {
+        SwingUtilities.invokeAndWait(() -> panel.setFilter(filter));
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2019 junichi11.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.junichi11.netbeans.gitignoreio.ui.actions;
+
+import com.junichi11.netbeans.gitignoreio.client.GitignoreioClient;
+import com.junichi11.netbeans.gitignoreio.client.GitignoreioTestServer;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author junichi11
+ */
+public class GenerateGitIgnoreActionTest {
+
+    private static final int TIMEOUT = 2000;
+    private static final String EXISTING_CONTENT = "# existing\n*.bak\n"; // NOI18N
+    private static GitignoreioTestServer server;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        server = GitignoreioTestServer.start();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        server.close();
+    }
+
+    @After
+    public void tearDown() {
+        server.reset();
+    }
+
+    @Test
+    public void testDownloadGitignores() throws IOException {
+        File gitignoreContent = GenerateGitIgnoreAction.downloadGitignores(createClient(), "java,maven", false);
+        try {
+            assertEquals(GitignoreioTestServer.getContent("/api/java,maven"), read(gitignoreContent));
+        } finally {
+            GenerateGitIgnoreAction.deleteFile(gitignoreContent);
+        }
+        assertFalse(gitignoreContent.exists());
+        assertEquals(1, server.getRequestCount("/api/java,maven"));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testGenerateNew() throws IOException {
+        File gitignoreFile = new File(temporaryFolder.getRoot(), ".gitignore");
+        assertTrue(GenerateGitIgnoreAction.generate(createClient(), gitignoreFile, "java,maven", true, false));
+        assertEquals(GitignoreioTestServer.getContent("/api/java,maven"), read(gitignoreFile));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testGenerateNewExisting() throws IOException {
+        File gitignoreFile = createGitignore();
+        assertFalse(GenerateGitIgnoreAction.generate(createClient(), gitignoreFile, "java,maven", true, false));
+        assertEquals(EXISTING_CONTENT, read(gitignoreFile));
+        assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    public void testGenerateOverwrite() throws IOException {
+        File gitignoreFile = createGitignore();
+        generate(gitignoreFile, "node", false);
+        assertEquals(GitignoreioTestServer.getContent("/api/node"), read(gitignoreFile));
+    }
+
+    @Test
+    public void testGeneratePostscript() throws IOException {
+        File gitignoreFile = createGitignore();
+        generate(gitignoreFile, "gradle,netbeans", true);
+        String content = GitignoreioTestServer.getContent("/api/gradle,netbeans");
+        // without the header
+        assertEquals(EXISTING_CONTENT + content.substring(content.indexOf('\n') + 1), read(gitignoreFile));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testGeneratePostscriptWithoutLastLineSeparator() throws IOException {
+        File gitignoreFile = temporaryFolder.newFile(".gitignore");
+        Files.write(gitignoreFile.toPath(), "*.bak".getBytes(StandardCharsets.UTF_8));
+        generate(gitignoreFile, "maven", true);
+        String content = GitignoreioTestServer.getContent("/api/maven");
+        assertEquals("*.bak\n" + content.substring(content.indexOf('\n') + 1), read(gitignoreFile));
+    }
+
+    @Test
+    public void testWriteFileNotExisting() throws IOException {
+        // the caller creates the file
+        File gitignoreFile = new File(temporaryFolder.getRoot(), ".gitignore");
+        File gitignoreContent = GenerateGitIgnoreAction.downloadGitignores(createClient(), "java", false);
+        try {
+            GenerateGitIgnoreAction.writeFile(gitignoreFile, gitignoreContent, false);
+        } finally {
+            GenerateGitIgnoreAction.deleteFile(gitignoreContent);
+        }
+        assertFalse(gitignoreFile.exists());
+    }
+
+    @Test
+    public void testDownloadFailure() throws IOException {
+        File gitignoreFile = createGitignore();
+        server.failNextRequests(1);
+        try {
+            generate(gitignoreFile, "java,maven", false);
+            fail();
+        } catch (IOException ex) {
+            // expected
+        }
+        // the existing file is not changed
+        assertEquals(EXISTING_CONTENT, read(gitignoreFile));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testDownloadBrokenResponse() throws IOException {
+        File gitignoreFile = createGitignore();
+        server.breakNextResponses(1);
+        try {
+            generate(gitignoreFile, "java,node", true);
+            fail();
+        } catch (IOException ex) {
+            // expected
+        }
+        assertEquals(EXISTING_CONTENT, read(gitignoreFile));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testDownloadTimeBudget() throws IOException {
+        String gitignores = "gradle,java,maven,netbeans,node";
+        String content = GitignoreioTestServer.getContent("/api/" + gitignores);
+        // latency 200ms + about 1s for the body
+        server.setLatency(200);
+        server.setBandwidth(content.length());
+        File gitignoreFile = createGitignore();
+        long start = System.currentTimeMillis();
+        generate(gitignoreFile, gitignores, false);
+        long elapsed = System.currentTimeMillis() - start;
+        assertEquals(content, read(gitignoreFile));
+        assertTrue("elapsed: " + elapsed, elapsed >= 1000);
+        assertTrue("elapsed: " + elapsed, elapsed < 1200 + 1500);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testDownloadTimeout() throws IOException {
+        File gitignoreFile = createGitignore();
+        server.setLatency(3000);
+        long start = System.currentTimeMillis();
+        try {
+            File gitignoreContent = GenerateGitIgnoreAction.downloadGitignores(server.createClient(200), "java", false);
+            GenerateGitIgnoreAction.deleteFile(gitignoreContent);
+            fail();
+        } catch (IOException ex) {
+            // expected
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue("elapsed: " + elapsed, elapsed < 1000);
+        assertEquals(EXISTING_CONTENT, read(gitignoreFile));
+    }
+
+    private static GitignoreioClient createClient() {
+        return server.createClient(TIMEOUT);
+    }
+
+    private File createGitignore() throws IOException {
+        File gitignoreFile = temporaryFolder.newFile(".gitignore");
+        Files.write(gitignoreFile.toPath(), EXISTING_CONTENT.getBytes(StandardCharsets.UTF_8));
+        return gitignoreFile;
+    }
+
+    // overwrite or postscript
+    private static void generate(File gitignoreFile, String gitignores, boolean isPostscript) throws IOException {
+        assertTrue(GenerateGitIgnoreAction.generate(createClient(), gitignoreFile, gitignores, false, isPostscript));
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}